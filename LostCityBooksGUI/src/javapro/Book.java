@@ -1,17 +1,24 @@
 public class Book {
+    private int id;
+    private String category;
     private String title;
-    private double price;
+    private int priceCents;
 
-    public Book(String title, double price) {
+    public Book(int id, String category, String title, int priceCents) {
+        this.id = id;
+        this.category = category;
         this.title = title;
-        this.price = price;
+        this.priceCents = priceCents;
     }
 
+    public int getId() { return id; }
+    public String getCategory() { return category; }
     public String getTitle() { return title; }
-    public double getPrice() { return price; }
+    public int getPriceCents() { return priceCents; }
+    public double getPrice() { return priceCents / 100.0; }
 
     @Override
     public String toString() {
-        return title + " — $" + price;
+        return title + " — $" + getPrice();
     }
 }
@@ -0,0 +1,318 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BookCatalog {
+
+    public static final String FILE_NAME = "data/books.txt";
+
+    // 📦 Files bigger than this are memory-mapped instead of read onto the heap
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    // 📚 One row per book, stored column by column (row = position in the file)
+    private int size;
+    private int[] ids = new int[64];
+    private short[] categoryOf = new short[64];
+    private int[] priceCents = new int[64];
+
+    // 🔤 Titles stay UTF-8 in one shared array and become Strings only when shown,
+    //    so a big catalog is a handful of arrays instead of a million objects
+    private byte[] titleBytes = new byte[4096];
+    private int titleBytesUsed;
+    private int[] titleStart = new int[65]; // title of row r = [titleStart[r], titleStart[r + 1])
+
+    // 🏷️ Category partitions, built while parsing: category -> rows (ascending)
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, int[]> partitions = new HashMap<>();
+
+    // 🔑 id -> row, only needed when the file is not sorted by id
+    private Map<Integer, Integer> rowById;
+
+    // ================= LOADING =================
+    public static BookCatalog load(String fileName) {
+
+        BookCatalog catalog = new BookCatalog();
+        Path path = Paths.get(fileName);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            long length = channel.size();
+            ByteBuffer buffer;
+
+            if (length > MAP_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            } else {
+                buffer = ByteBuffer.allocate((int) length);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) { }
+                buffer.flip();
+            }
+            catalog.parse(buffer);
+
+        } catch (NoSuchFileException e) {
+            System.out.println("No catalog at " + fileName);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return catalog;
+    }
+
+    // id|category|title|price, one book per line; '#' lines are comments, bad lines are skipped.
+    // The buffer (mapped or not) is copied through a reusable window and parsed as a byte[].
+    private void parse(ByteBuffer in) {
+
+        LineParser parser = new LineParser();
+        byte[] window = new byte[1 << 16];
+        int filled = 0;
+
+        while (true) {
+            int n = Math.min(window.length - filled, in.remaining());
+            in.get(window, filled, n);
+            filled += n;
+            boolean last = !in.hasRemaining();
+
+            int pos = 0;
+            for (int i = 0; i < filled; i++) {
+                if (window[i] == '\n') {
+                    parser.line(window, pos, i);
+                    pos = i + 1;
+                }
+            }
+            if (last) {
+                if (pos < filled) {
+                    parser.line(window, pos, filled); // no newline at the end of the file
+                }
+                break;
+            }
+
+            // keep the unfinished line for the next round; grow if one line fills the window
+            filled -= pos;
+            System.arraycopy(window, pos, window, 0, filled);
+            if (filled == window.length) {
+                window = Arrays.copyOf(window, window.length * 2);
+            }
+        }
+        parser.finish();
+    }
+
+    private class LineParser {
+
+        private final Map<String, IntList> rowsByCategory = new HashMap<>();
+        private byte[] lastCategory = new byte[0];
+        private IntList lastRows;
+        private short lastCode = -1;
+        private boolean sortedById = true;
+        private int lastId = Integer.MIN_VALUE;
+
+        void line(byte[] b, int pos, int end) {
+
+            if (end > pos && b[end - 1] == '\r') end--;
+            if (end == pos || b[pos] == '#') return;
+
+            int bar1 = -1, bar2 = -1, bar3 = -1;
+            for (int i = pos; i < end; i++) {
+                if (b[i] == '|') {
+                    if (bar1 < 0) bar1 = i;
+                    else if (bar2 < 0) bar2 = i;
+                    else bar3 = i; // the last bar wins, so titles may contain '|'
+                }
+            }
+            if (bar3 < 0) return;
+
+            int id = parseInt(b, pos, bar1);
+            int price = parseCents(b, bar3 + 1, end);
+            if (id < 0 || price < 0) return;
+
+            // files are usually grouped by category, so most rows reuse the previous one
+            if (!Arrays.equals(b, bar1 + 1, bar2, lastCategory, 0, lastCategory.length)) {
+                lastCategory = Arrays.copyOfRange(b, bar1 + 1, bar2);
+                String category = new String(lastCategory, StandardCharsets.UTF_8).trim();
+                lastRows = rowsByCategory.get(category);
+                if (lastRows == null) {
+                    lastRows = new IntList();
+                    rowsByCategory.put(category, lastRows);
+                    categories.add(category);
+                }
+                lastCode = (short) categories.indexOf(category);
+            }
+
+            ensureCapacity(size + 1);
+            ids[size] = id;
+            categoryOf[size] = lastCode;
+            appendTitle(b, bar2 + 1, bar3);
+            priceCents[size] = price;
+            lastRows.add(size);
+
+            sortedById &= id > lastId;
+            lastId = id;
+            size++;
+        }
+
+        void finish() {
+            for (Map.Entry<String, IntList> e : rowsByCategory.entrySet()) {
+                partitions.put(e.getKey(), e.getValue().toArray());
+            }
+            if (!sortedById) {
+                rowById = new HashMap<>(size * 2);
+                for (int row = 0; row < size; row++) {
+                    rowById.putIfAbsent(ids[row], row);
+                }
+            }
+        }
+    }
+
+    private static int parseInt(byte[] b, int from, int to) {
+        if (from >= to) return -1;
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            if (b[i] < '0' || b[i] > '9') return -1;
+            value = value * 10 + (b[i] - '0');
+            if (value > Integer.MAX_VALUE) return -1;
+        }
+        return (int) value;
+    }
+
+    // "45", "45.5" or "45.50" -> 4550; no floating point involved
+    private static int parseCents(byte[] b, int from, int to) {
+        long cents = 0;
+        int decimals = -1;
+        for (int i = from; i < to; i++) {
+            if (b[i] == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (b[i] >= '0' && b[i] <= '9' && decimals < 2) {
+                cents = cents * 10 + (b[i] - '0');
+                if (decimals >= 0) decimals++;
+            } else if (b[i] != ' ') {
+                return -1;
+            }
+        }
+        if (from >= to || cents > Integer.MAX_VALUE / 100) return -1;
+        for (int d = Math.max(decimals, 0); d < 2; d++) {
+            cents *= 10;
+        }
+        return (int) cents;
+    }
+
+    private void appendTitle(byte[] b, int from, int to) {
+        while (from < to && b[from] == ' ') from++;
+        while (to > from && b[to - 1] == ' ') to--;
+        int length = to - from;
+        if (titleBytesUsed + length > titleBytes.length) {
+            titleBytes = Arrays.copyOf(titleBytes, Math.max(titleBytesUsed + length, titleBytes.length * 2));
+        }
+        System.arraycopy(b, from, titleBytes, titleBytesUsed, length);
+        titleBytesUsed += length;
+        titleStart[size + 1] = titleBytesUsed;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > ids.length) {
+            int capacity = Math.max(needed, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            categoryOf = Arrays.copyOf(categoryOf, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            titleStart = Arrays.copyOf(titleStart, capacity + 1);
+        }
+    }
+
+    // ================= LOOKUPS =================
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) { return ids[row]; }
+    public String getTitle(int row) {
+        return new String(titleBytes, titleStart[row], titleStart[row + 1] - titleStart[row], StandardCharsets.UTF_8);
+    }
+
+    public String getCategory(int row) { return categories.get(categoryOf[row]); }
+    public int getPriceCents(int row) { return priceCents[row]; }
+
+    // only the rows that go into a cart become Book objects
+    public Book getBook(int row) {
+        return new Book(ids[row], getCategory(row), getTitle(row), priceCents[row]);
+    }
+
+    // row of a catalog id, or -1
+    public int rowOf(int id) {
+        if (rowById != null) {
+            Integer row = rowById.get(id);
+            return row == null ? -1 : row;
+        }
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? row : -1;
+    }
+
+    public Book findById(int id) {
+        int row = rowOf(id);
+        return row < 0 ? null : getBook(row);
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    // rows of one category, ascending; never modify the returned array
+    public int[] getCategoryRows(String category) {
+        int[] rows = partitions.get(category);
+        return rows == null ? new int[0] : rows;
+    }
+
+    // ================= INT LIST =================
+    private static class IntList {
+
+        private int[] data = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    // ================= BENCHMARK =================
+    // java BookCatalog [titles] : writes data/books_bench.txt once and times loading it
+    public static void main(String[] args) throws IOException {
+
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String file = "data/books_bench.txt";
+        String[] cats = {"Movie", "Anime", "Emotional", "Psychology", "Technology"};
+        String[] words = ("lost city night river garden silent letters power habit code design "
+                + "patterns dragon midnight tears atomic mind set journey winter").split(" ");
+
+        if (!new File(file).isFile()) {
+            java.util.Random random = new java.util.Random(42);
+            try (BufferedWriter w = Files.newBufferedWriter(Paths.get(file))) {
+                for (int id = 1; id <= count; id++) {
+                    w.write(id + "|" + cats[random.nextInt(cats.length)] + "|"
+                            + words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                            + " " + id + "|" + (10 + random.nextInt(50)) + "." + random.nextInt(10) + "9");
+                    w.newLine();
+                }
+            }
+        }
+
+        for (int run = 1; run <= 5; run++) {
+            long start = System.nanoTime();
+            BookCatalog catalog = load(file);
+            long loaded = System.nanoTime();
+            TitleIndex index = new TitleIndex(catalog);
+            index.build();
+            long indexed = System.nanoTime();
+            System.out.println("run " + run + ": " + catalog.size() + " books loaded in "
+                    + (loaded - start) / 1_000_000 + " ms, indexed in " + (indexed - loaded) / 1_000_000 + " ms");
+        }
+    }
+}
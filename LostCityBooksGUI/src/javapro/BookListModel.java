@@ -0,0 +1,62 @@
+import javax.swing.AbstractListModel;
+
+public class BookListModel extends AbstractListModel<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    // 📚 The list shows a search result as it is: catalog rows, no copies of the text.
+    //    A cell's "Title ($price)" is made only when the JList asks for it, which is
+    //    just the rows on screen when the list has a fixed cell size.
+    private final transient BookCatalog catalog;
+    private transient TitleIndex.Result result;
+
+    public BookListModel(BookCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    // ================= RESULT =================
+    // Swaps in a new result with at most two range events, however many rows change
+    public void setResult(TitleIndex.Result next) {
+
+        int oldSize = getSize();
+        result = next;
+        int newSize = getSize();
+
+        if (newSize < oldSize) {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        } else if (newSize > oldSize) {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        }
+        if (Math.min(oldSize, newSize) > 0) {
+            fireContentsChanged(this, 0, Math.min(oldSize, newSize) - 1);
+        }
+    }
+
+    public TitleIndex.Result getResult() {
+        return result;
+    }
+
+    // catalog row shown at a list index
+    public int getRow(int index) {
+        return result.getRow(index);
+    }
+
+    // ================= LIST MODEL =================
+    @Override
+    public int getSize() {
+        return result == null ? 0 : result.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        int row = result.getRow(index);
+        return catalog.getTitle(row) + " ($" + formatPrice(catalog.getPriceCents(row)) + ")";
+    }
+
+    // 4500 -> "45", 4550 -> "45.50"
+    static String formatPrice(int cents) {
+        return cents % 100 == 0
+                ? String.valueOf(cents / 100)
+                : String.format("%d.%02d", cents / 100, cents % 100);
+    }
+}
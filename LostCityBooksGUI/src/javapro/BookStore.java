@@ -1,24 +1,34 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.FileWriter;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.concurrent.ExecutionException;
 
 public class BookStore {
 
     private JFrame frame;
     private JList<String> bookList;
-    private DefaultListModel<String> model;
+    private BookListModel model;
     private JTextField txtSearch;
     private JComboBox<String> cmbCategory;
 
     private JButton btnAdd, btnCart, btnTotal, btnPurchase;
 
     private User user;
-    private Cart cart = new Cart();
+    private Cart cart;
 
-    private ArrayList<String> allBooks = new ArrayList<>();
+    private BookCatalog catalog;
+
+    // 🔎 Search: trigram index, debounce timer, the search in flight and the last published result
+    private TitleIndex index;
+    private Timer searchTimer;
+    private SwingWorker<TitleIndex.Result, Void> searchWorker;
+    private TitleIndex.Result lastResult;
+
+    // 🤝 "Also bought": filled from purchases.txt in the background, then by every checkout
+    private final CoPurchaseModel coPurchases = new CoPurchaseModel();
+    private JLabel lblAlsoBought;
 
     // 🎨 Dark Theme Colors
     private final Color BG = new Color(18, 12, 35);
@@ -29,6 +39,7 @@ public class BookStore {
 
     public BookStore(User user) {
         this.user = user;
+        this.cart = Cart.load(Cart.fileFor(user.getEmail())); // 🛒 whatever was left in the cart last time
         createUI();
         loadBooks();
         refreshList();
@@ -81,17 +92,16 @@ public class BookStore {
         card.add(txtSearch);
 
         // 🏷️ Category Filter
-        cmbCategory = new JComboBox<>(new String[]{
-                "All", "Movie", "Anime", "Emotional", "Psychology", "Technology"
-        });
+        cmbCategory = new JComboBox<>(new String[]{"All"}); // catalog categories are added by loadBooks
         cmbCategory.setBounds(310, 20, 180, 35);
         cmbCategory.setFont(new Font("Segoe UI", Font.BOLD, 14));
         card.add(cmbCategory);
 
-        // 📚 Book List
-        model = new DefaultListModel<>();
-        bookList = new JList<>(model);
+        // 📚 Book List (the model comes with the catalog, see loadBooks)
+        bookList = new JList<>();
         bookList.setFont(new Font("Segoe UI", Font.BOLD, 15));
+        bookList.setFixedCellHeight(26); // fixed cells: the list never measures rows it doesn't show
+        bookList.setFixedCellWidth(340);
         bookList.setBackground(new Color(28, 20, 60));
         bookList.setForeground(TEXT);
         bookList.setSelectionBackground(BTN);
@@ -111,65 +121,119 @@ public class BookStore {
         card.add(btnTotal);
         card.add(btnPurchase);
 
+        // 🤝 Customers who bought the selected book also bought...
+        lblAlsoBought = new JLabel();
+        lblAlsoBought.setBounds(430, 325, 350, 70);
+        lblAlsoBought.setVerticalAlignment(SwingConstants.TOP);
+        lblAlsoBought.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        lblAlsoBought.setForeground(Color.LIGHT_GRAY);
+        card.add(lblAlsoBought);
+
         // 🎯 Events
-        txtSearch.addKeyListener(new KeyAdapter() {
-            public void keyReleased(KeyEvent e) {
-                refreshList();
-            }
+        // every edit (typing, paste, cut, setText) restarts a short timer; only a pause starts a search
+        searchTimer = new Timer(150, e -> refreshList());
+        searchTimer.setRepeats(false);
+        txtSearch.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
+            public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
+            public void changedUpdate(DocumentEvent e) { searchTimer.restart(); }
         });
 
         cmbCategory.addActionListener(e -> refreshList());
 
+        bookList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showAlsoBought();
+            }
+        });
+
         frame.setVisible(true);
     }
 
     // ================= BOOK DATA =================
+    // data/books.txt; the trigram index is built in the background, searches scan until it's ready
     private void loadBooks() {
 
-        // 🎬 Movie
-        allBooks.add("Movie | Oppenheimer ($50)");
-        allBooks.add("Movie | Interstellar ($48)");
-        allBooks.add("Movie | Inception ($46)");
-
-        // 🎌 Anime
-        allBooks.add("Anime | Attack on Titan ($55)");
-        allBooks.add("Anime | Naruto ($42)");
-        allBooks.add("Anime | Demon Slayer ($44)");
-        allBooks.add("Anime | One Piece ($60)");
-
-        // 💔 Emotional
-        allBooks.add("Emotional | The Silent Goodbye ($35)");
-        allBooks.add("Emotional | Letters I Never Sent ($38)");
-        allBooks.add("Emotional | Midnight Tears ($33)");
-
-        // 🧠 Psychology
-        allBooks.add("Psychology | Atomic Habits ($45)");
-        allBooks.add("Psychology | Mindset ($42)");
-        allBooks.add("Psychology | The Power of Habit ($40)");
-
-        // 💻 Technology
-        allBooks.add("Technology | Clean Code ($45)");
-        allBooks.add("Technology | Design Patterns ($55)");
-        allBooks.add("Technology | Algorithms Unlocked ($50)");
+        catalog = BookCatalog.load(BookCatalog.FILE_NAME);
+        model = new BookListModel(catalog);
+        bookList.setModel(model);
+        for (String category : catalog.getCategories()) {
+            cmbCategory.addItem(category);
+        }
+        if (catalog.size() == 0) {
+            alert("No books found in " + BookCatalog.FILE_NAME);
+        }
+
+        index = new TitleIndex(catalog);
+        Thread indexer = new Thread(index::build, "title-index");
+        indexer.setDaemon(true);
+        indexer.start();
+
+        Thread history = new Thread(() -> {
+            coPurchases.loadHistory(PurchaseJournal.PURCHASES_FILE, catalog);
+            SwingUtilities.invokeLater(this::showAlsoBought);
+        }, "co-purchases");
+        history.setDaemon(true);
+        history.start();
     }
 
-    private void refreshList() {
+    // up to three titles bought together with the selected one, most often first
+    private void showAlsoBought() {
 
-        model.clear();
+        int index = bookList.getSelectedIndex();
+        if (index < 0 || lastResult == null || index >= lastResult.size()) {
+            lblAlsoBought.setText("");
+            return;
+        }
 
-        String keyword = txtSearch.getText().toLowerCase();
-        String selectedCategory = cmbCategory.getSelectedItem().toString();
+        StringBuilder sb = new StringBuilder();
+        int shown = 0;
+        for (int id : coPurchases.alsoBought(catalog.getId(lastResult.getRow(index)))) {
+            int row = catalog.rowOf(id);
+            if (row >= 0 && shown++ < 3) {
+                sb.append("<br>• ").append(catalog.getTitle(row));
+            }
+        }
+        lblAlsoBought.setText(sb.length() == 0 ? "" : "<html>Customers who bought this also bought:" + sb + "</html>");
+    }
+
+    // ================= SEARCH =================
+    // Runs the search off the EDT; a newer search cancels the older one, and only the
+    // newest result is put on screen, as one range event instead of an event per row
+    private void refreshList() {
+
+        searchTimer.stop();
+        if (searchWorker != null) {
+            searchWorker.cancel(false);
+        }
 
-        for (String book : allBooks) {
+        final String keyword = txtSearch.getText();
+        final String selectedCategory = cmbCategory.getSelectedItem().toString();
+        final TitleIndex.Result previous = lastResult;
 
-            boolean matchSearch = book.toLowerCase().contains(keyword);
-            boolean matchCategory = selectedCategory.equals("All") ||
-                    book.startsWith(selectedCategory);
+        searchWorker = new SwingWorker<TitleIndex.Result, Void>() {
+            protected TitleIndex.Result doInBackground() {
+                return index.search(keyword, selectedCategory, previous);
+            }
 
-            if (matchSearch && matchCategory) {
-                model.addElement(book.replaceAll(".*\\| ", ""));
+            protected void done() {
+                if (isCancelled() || this != searchWorker) {
+                    return;
+                }
+                try {
+                    showResult(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    alert("Search failed: " + e.getMessage());
+                }
             }
-        }
+        };
+        searchWorker.execute();
+    }
+
+    private void showResult(TitleIndex.Result result) {
+        lastResult = result;
+        bookList.clearSelection();
+        model.setResult(result);
     }
 
     // ================= UI HELPERS =================
@@ -214,9 +278,11 @@ public class BookStore {
                 alert("Please select a book first.");
                 return;
             }
-            String text = model.get(index);
-            cart.add(new Book(text, extractPrice(text)));
-            alert("Added to cart.");
+            Book book = catalog.getBook(lastResult.getRow(index));
+            cart.add(book);
+            saveCart();
+            int quantity = cart.getQuantity(book.getId());
+            alert(quantity > 1 ? "Added to cart (" + quantity + " copies)." : "Added to cart.");
         }
 
         if (action.contains("Cart")) {
@@ -226,8 +292,10 @@ public class BookStore {
             }
 
             StringBuilder sb = new StringBuilder("🛒 Your Cart:\n\n");
-            for (Book b : cart.getBooks()) {
-                sb.append("• ").append(b).append("\n");
+            for (Cart.Line line : cart.getLines()) {
+                sb.append("• ").append(line.getBook());
+                if (line.getQuantity() > 1) sb.append("  x").append(line.getQuantity());
+                sb.append("\n");
             }
             alert(sb.toString());
         }
@@ -244,26 +312,18 @@ public class BookStore {
                 return;
             }
 
-            StringBuilder receipt = new StringBuilder();
-            receipt.append("🧾 LOST CITY BOOKS RECEIPT\n");
-            receipt.append("--------------------------------\n");
-            receipt.append("Customer Name : ").append(user.getName()).append("\n");
-            receipt.append("Email         : ").append(user.getEmail()).append("\n");
-            receipt.append("Gender        : ").append(user.getGender()).append("\n");
-            receipt.append("Date          : ").append(LocalDateTime.now()).append("\n\n");
-
-            receipt.append("Purchased Items:\n");
-            for (Book b : cart.getBooks()) {
-                receipt.append("• ").append(b.getTitle())
-                        .append(" ($").append(b.getPrice()).append(")\n");
-            }
+            // 📝 one record feeds the receipt, purchases.txt and sales_report.txt;
+            //    the journal writes it in the background, so checkout never waits on the disk
+            Purchase purchase = Purchase.of(user, cart);
+            new PurchaseManager().savePurchase(purchase);
 
-            receipt.append("\n--------------------------------\n");
-            receipt.append("TOTAL : $").append(cart.getTotal()).append("\n");
-            receipt.append("--------------------------------\n");
-            receipt.append("✨ Thank you for shopping at Lost City Books!");
+            int[] ids = new int[purchase.getItems().size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = purchase.getItems().get(i).getBookId();
+            }
+            coPurchases.record(ids);
 
-            JTextArea area = new JTextArea(receipt.toString());
+            JTextArea area = new JTextArea(purchase.toReceipt());
             area.setFont(new Font("Monospaced", Font.PLAIN, 13));
             area.setEditable(false);
 
@@ -272,35 +332,19 @@ public class BookStore {
 
             JOptionPane.showMessageDialog(frame, pane, "Receipt", JOptionPane.INFORMATION_MESSAGE);
 
-            saveSalesReport(receipt.toString());
             cart.clear();
+            saveCart();
+            showAlsoBought();
         }
     }
 
     // ================= UTILITIES =================
-    private double extractPrice(String text) {
-        try {
-            int start = text.indexOf("$") + 1;
-            int end = text.indexOf(")");
-            return Double.parseDouble(text.substring(start, end));
-        } catch (Exception e) {
-            return 0;
-        }
+    // 💾 the cart survives closing the app; an empty cart removes the file
+    private void saveCart() {
+        cart.save(Cart.fileFor(user.getEmail()));
     }
 
     private void alert(String msg) {
         JOptionPane.showMessageDialog(frame, msg);
     }
-
-    // 💾 Save Sales Report
-    private void saveSalesReport(String receipt) {
-        try {
-            FileWriter writer = new FileWriter("data/sales_report.txt", true);
-            writer.write(receipt);
-            writer.write("\n\n====================================\n\n");
-            writer.close();
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(frame, "Failed to save sales report.");
-        }
-    }
-}
\ No newline at end of file
+}
@@ -1,30 +1,184 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class Cart {
 
-    private ArrayList<Book> books = new ArrayList<>();
+    public static final String CART_DIR = "data/carts";
 
+    // 🛒 One line per book id, in the order they were first added
+    private final LinkedHashMap<Integer, Line> lines = new LinkedHashMap<>();
+
+    // 💰 Kept up to date on every change, in cents, so totals never re-sum or drift
+    private long totalCents;
+    private int itemCount;
+
+    public static class Line {
+
+        private final Book book;
+        private int quantity;
+
+        Line(Book book, int quantity) {
+            this.book = book;
+            this.quantity = quantity;
+        }
+
+        public Book getBook() { return book; }
+        public int getQuantity() { return quantity; }
+        public long getLineCents() { return (long) book.getPriceCents() * quantity; }
+    }
+
+    // ================= CHANGES =================
     public void add(Book book) {
-        books.add(book);
+        add(book, 1);
+    }
+
+    public void add(Book book, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Line line = lines.get(book.getId());
+        if (line == null) {
+            lines.put(book.getId(), new Line(book, quantity));
+        } else {
+            line.quantity += quantity;
+        }
+        totalCents += (long) book.getPriceCents() * quantity;
+        itemCount += quantity;
+    }
+
+    // 0 removes the line
+    public void setQuantity(int bookId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity cannot be negative");
+        }
+        Line line = lines.get(bookId);
+        if (line == null) {
+            return;
+        }
+        int delta = quantity - line.quantity;
+        totalCents += (long) line.book.getPriceCents() * delta;
+        itemCount += delta;
+        if (quantity == 0) {
+            lines.remove(bookId);
+        } else {
+            line.quantity = quantity;
+        }
+    }
+
+    public void remove(int bookId) {
+        setQuantity(bookId, 0);
+    }
+
+    public void clear() {
+        lines.clear();
+        totalCents = 0;
+        itemCount = 0;
+    }
+
+    // ================= READING =================
+    public int getQuantity(int bookId) {
+        Line line = lines.get(bookId);
+        return line == null ? 0 : line.quantity;
+    }
+
+    public Collection<Line> getLines() {
+        return Collections.unmodifiableCollection(lines.values());
     }
 
-    public ArrayList<Book> getBooks() {
+    // one entry per copy, for code that just walks the books
+    public List<Book> getBooks() {
+        List<Book> books = new ArrayList<>(itemCount);
+        for (Line line : lines.values()) {
+            for (int i = 0; i < line.quantity; i++) {
+                books.add(line.book);
+            }
+        }
         return books;
     }
 
     public boolean isEmpty() {
-        return books.isEmpty();
+        return lines.isEmpty();
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
     }
 
     public double getTotal() {
-        double total = 0;
-        for (Book b : books) {
-            total += b.getPrice();
+        return totalCents / 100.0;
+    }
+
+    // ================= SAVE / RESTORE =================
+    // data/carts/<email>.txt, one line per book: id|category|title|priceCents|quantity
+    public static File fileFor(String email) {
+        String name = UserIndex.normalize(email).replaceAll("[^a-z0-9._@-]", "_");
+        return new File(CART_DIR, name + ".txt");
+    }
+
+    public void save(File file) {
+        if (isEmpty()) {
+            file.delete();
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Line line : lines.values()) {
+            Book b = line.book;
+            sb.append(b.getId()).append('|').append(b.getCategory()).append('|')
+              .append(b.getTitle()).append('|').append(b.getPriceCents()).append('|')
+              .append(line.quantity).append('\n');
+        }
+        try {
+            file.getParentFile().mkdirs();
+            Path tmp = Paths.get(file.getPath() + ".tmp");
+            Files.write(tmp, sb.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Could not save cart " + file + ": " + e.getMessage());
         }
-        return total;
     }
 
-    public void clear() {
-        books.clear();
+    // lines keep the price they were added at; unreadable lines are skipped
+    public static Cart load(File file) {
+        Cart cart = new Cart();
+        if (!file.isFile()) {
+            return cart;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String row;
+            while ((row = reader.readLine()) != null) {
+                // the title may contain '|', so id and category come from the left, the numbers from the right
+                int a = row.indexOf('|');
+                int b = a < 0 ? -1 : row.indexOf('|', a + 1);
+                int d = row.lastIndexOf('|');
+                int c = d < 0 ? -1 : row.lastIndexOf('|', d - 1);
+                if (a < 0 || b < 0 || c <= b) {
+                    continue;
+                }
+                try {
+                    Book book = new Book(Integer.parseInt(row.substring(0, a)), row.substring(a + 1, b),
+                            row.substring(b + 1, c), Integer.parseInt(row.substring(c + 1, d)));
+                    int quantity = Integer.parseInt(row.substring(d + 1).trim());
+                    if (quantity > 0) {
+                        cart.add(book, quantity);
+                    }
+                } catch (NumberFormatException e) {
+                    // skip the damaged line, keep the rest of the cart
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Could not load cart " + file + ": " + e.getMessage());
+        }
+        return cart;
     }
 }
@@ -0,0 +1,334 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+public class CoPurchaseModel {
+
+    public static final int TOP_N = 5;
+
+    private static final int[] NONE = new int[0];
+
+    // 🤝 book id -> (other book id -> baskets holding both), all primitive ints,
+    //    plus that book's top partners (see Partners)
+    private final IntMap<Partners> together = new IntMap<>();
+
+    private long baskets;
+
+    // ================= RECORDING =================
+    // One purchase; repeated ids (quantities) count once
+    public synchronized void record(int[] bookIds) {
+
+        int[] ids = distinct(bookIds);
+        if (ids.length == 0) {
+            return;
+        }
+        baskets++;
+        for (int a : ids) {
+            Partners partners = together.get(a);
+            if (partners == null) {
+                partners = new Partners();
+                together.put(a, partners);
+            }
+            for (int b : ids) {
+                if (a != b) {
+                    promote(partners, b, partners.increment(b));
+                }
+            }
+        }
+    }
+
+    // Counts only grow, so b can only move up: re-place it in a's list and drop
+    // whatever falls off the end. O(TOP_N) per pair.
+    private static void promote(Partners partners, int b, int count) {
+
+        int[] list = partners.top;
+
+        int at = indexOf(list, b);
+        if (at < 0) {
+            if (list.length == TOP_N && !better(b, count, list[TOP_N - 1], partners.get(list[TOP_N - 1]))) {
+                return; // still not good enough
+            }
+            list = Arrays.copyOf(list, Math.min(list.length + 1, TOP_N));
+            at = list.length - 1;
+        } else if (at == 0 || !better(b, count, list[at - 1], partners.get(list[at - 1]))) {
+            return; // keeps its place; the higher count is already in partners
+        } else {
+            list = list.clone();
+        }
+        while (at > 0 && better(b, count, list[at - 1], partners.get(list[at - 1]))) {
+            list[at] = list[at - 1];
+            at--;
+        }
+        list[at] = b;
+        partners.top = list;
+    }
+
+    // more baskets first, then the lower id, so equal counts always sort the same way
+    private static boolean better(int id, int count, int otherId, int otherCount) {
+        return count > otherCount || count == otherCount && id < otherId;
+    }
+
+    private static int indexOf(int[] list, int id) {
+        for (int i = 0; i < list.length; i++) {
+            if (list[i] == id) return i;
+        }
+        return -1;
+    }
+
+    private static int[] distinct(int[] ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i] > 0 && (n == 0 || sorted[n - 1] != sorted[i])) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+
+    // ================= LOOKUPS =================
+    // "customers who bought this also bought", best first; never modify the returned array
+    public synchronized int[] alsoBought(int bookId) {
+        Partners partners = together.get(bookId);
+        return partners == null ? NONE : partners.top;
+    }
+
+    public synchronized int timesBoughtTogether(int a, int b) {
+        Partners partners = together.get(a);
+        return partners == null ? 0 : partners.get(b);
+    }
+
+    public synchronized long getBasketCount() {
+        return baskets;
+    }
+
+    // ================= HISTORY =================
+    // Adds every purchase in purchases.txt (any of its record formats). The files only name
+    // titles, so they are matched against the catalog; titles it does not know are left out.
+    public void loadHistory(String fileName, BookCatalog catalog) {
+
+        Map<String, Integer> idByTitle = new HashMap<>();
+        for (int row = 0; row < catalog.size(); row++) {
+            idByTitle.putIfAbsent(catalog.getTitle(row).toLowerCase(), catalog.getId(row));
+        }
+
+        int[][] basket = {new int[16]};
+        int[] size = {0};
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            // 📏 checkouts from now on are record()ed live; reading what they append would count them twice
+            long end = channel.size();
+            forEachLine(channel, end, line -> {
+                if (SalesAnalytics.isRecordStart(line)) {
+                    record(Arrays.copyOf(basket[0], size[0]));
+                    size[0] = 0;
+                    return;
+                }
+                Purchase.Item item = SalesAnalytics.parseItem(line);
+                Integer id = item == null ? null : idByTitle.get(item.getTitle().toLowerCase());
+                if (id != null) {
+                    if (size[0] == basket[0].length) basket[0] = Arrays.copyOf(basket[0], size[0] * 2);
+                    basket[0][size[0]++] = id;
+                }
+            });
+            record(Arrays.copyOf(basket[0], size[0]));
+
+        } catch (NoSuchFileException e) {
+            // no purchases yet
+        } catch (IOException e) {
+            System.out.println("Could not read " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    // Lines of the file's first 'end' bytes, without their line breaks
+    private static void forEachLine(FileChannel channel, long end, Consumer<String> action) throws IOException {
+
+        byte[] b = new byte[1 << 16];
+        int filled = 0;
+        long pos = 0;
+
+        while (true) {
+            int n = pos < end ? channel.read(ByteBuffer.wrap(b, filled, (int) Math.min(b.length - filled, end - pos)), pos) : -1;
+            if (n > 0) {
+                pos += n;
+                filled += n;
+            }
+
+            int lineStart = 0;
+            for (int i = 0; i < filled; i++) {
+                if (b[i] == '\n') {
+                    int lineEnd = i > lineStart && b[i - 1] == '\r' ? i - 1 : i;
+                    action.accept(new String(b, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+                    lineStart = i + 1;
+                }
+            }
+            if (n <= 0) {
+                if (lineStart < filled) {
+                    action.accept(new String(b, lineStart, filled - lineStart, StandardCharsets.UTF_8));
+                }
+                return;
+            }
+
+            filled -= lineStart;
+            System.arraycopy(b, lineStart, b, 0, filled);
+            if (filled == b.length) { // one huge line; give it room
+                b = Arrays.copyOf(b, b.length * 2);
+            }
+        }
+    }
+
+    // ================= PRIMITIVE MAPS =================
+    // Open addressing with linear probing; key 0 marks an empty slot (book ids start at 1)
+    private static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ h >>> 16) & mask;
+    }
+
+    private static class IntIntMap {
+
+        private int[] keys = new int[8];
+        private int[] values = new int[8];
+        private int size;
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int s = slot(key, mask); keys[s] != 0; s = (s + 1) & mask) {
+                if (keys[s] == key) return values[s];
+            }
+            return 0;
+        }
+
+        // +1 and the new count
+        int increment(int key) {
+            int mask = keys.length - 1;
+            int s = slot(key, mask);
+            while (keys[s] != 0) {
+                if (keys[s] == key) return ++values[s];
+                s = (s + 1) & mask;
+            }
+            keys[s] = key;
+            values[s] = 1;
+            if (++size * 4 > keys.length * 3) {
+                grow();
+            }
+            return 1;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys, oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[keys.length];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int s = slot(oldKeys[i], mask);
+                    while (keys[s] != 0) s = (s + 1) & mask;
+                    keys[s] = oldKeys[i];
+                    values[s] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    // ⭐ One book's counts and its TOP_N partners, best first. The list is kept current on
+    //    every record(), so a recommendation is one lookup; it is replaced, never changed.
+    private static class Partners extends IntIntMap {
+        int[] top = NONE;
+    }
+
+    private static class IntMap<V> {
+
+        private int[] keys = new int[64];
+        private Object[] values = new Object[64];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        V get(int key) {
+            int mask = keys.length - 1;
+            for (int s = slot(key, mask); keys[s] != 0; s = (s + 1) & mask) {
+                if (keys[s] == key) return (V) values[s];
+            }
+            return null;
+        }
+
+        void put(int key, V value) {
+            int mask = keys.length - 1;
+            int s = slot(key, mask);
+            while (keys[s] != 0 && keys[s] != key) {
+                s = (s + 1) & mask;
+            }
+            if (keys[s] == 0) {
+                keys[s] = key;
+                if (++size * 2 > keys.length) {
+                    values[s] = value;
+                    grow();
+                    return;
+                }
+            }
+            values[s] = value;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new Object[keys.length];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int s = slot(oldKeys[i], mask);
+                    while (keys[s] != 0) s = (s + 1) & mask;
+                    keys[s] = oldKeys[i];
+                    values[s] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    // ================= BENCHMARK =================
+    // java CoPurchaseModel [baskets] [books] : random baskets with a few popular books
+    public static void main(String[] args) {
+
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int books = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Random random = new Random(11);
+
+        // popular books show up far more often, like real sales
+        int[][] all = new int[count][];
+        for (int i = 0; i < count; i++) {
+            int[] basket = new int[1 + random.nextInt(4)];
+            for (int j = 0; j < basket.length; j++) {
+                double u = random.nextDouble();
+                basket[j] = 1 + (int) (books * u * u * u);
+            }
+            all[i] = basket;
+        }
+
+        for (int run = 1; run <= 3; run++) {
+            CoPurchaseModel model = new CoPurchaseModel();
+            long start = System.nanoTime();
+            for (int[] basket : all) {
+                model.record(basket);
+            }
+            long built = System.nanoTime();
+
+            long found = 0;
+            for (int i = 0; i < 1_000_000; i++) {
+                found += model.alsoBought(1 + random.nextInt(books)).length;
+            }
+            long looked = System.nanoTime();
+
+            System.out.println("run " + run + ": " + count + " purchases recorded in " + (built - start) / 1_000_000
+                    + " ms (" + (built - start) / count + " ns each), 1M lookups in "
+                    + (looked - built) / 1_000_000 + " ms, " + found + " recommendations");
+        }
+    }
+}
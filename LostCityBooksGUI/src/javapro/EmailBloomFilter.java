@@ -0,0 +1,139 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+public class EmailBloomFilter {
+
+    private static final int MAGIC = 0x4C43_4246; // "LCBF"
+    private static final int VERSION = 1;
+
+    // 🎯 ~1% false positives at the planned number of emails (9.6 bits, 7 probes each)
+    private static final double BITS_PER_EMAIL = 9.6;
+    private static final int PROBES = 7;
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int planned;
+    private int added;
+
+    public EmailBloomFilter(int plannedEmails) {
+        this.planned = Math.max(plannedEmails, 1024);
+        long wanted = (long) Math.ceil(planned * BITS_PER_EMAIL);
+        this.bits = new long[(int) ((wanted + 63) / 64)];
+        this.bitCount = bits.length * 64L;
+    }
+
+    private EmailBloomFilter(long[] bits, int planned, int added) {
+        this.bits = bits;
+        this.bitCount = bits.length * 64L;
+        this.planned = planned;
+        this.added = added;
+    }
+
+    // ================= BITS =================
+    // h is the 64-bit email hash from UserIndex; the probes are h1 + i * h2 (double hashing)
+    public void add(long h) {
+        long h2 = mix(h) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            long bit = Long.remainderUnsigned(h + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        added++;
+    }
+
+    // false = definitely not registered; true = maybe, ask the index
+    public boolean mightContain(long h) {
+        long h2 = mix(h) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            long bit = Long.remainderUnsigned(h + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // past the plan the false-positive rate climbs; UserIndex then rebuilds a bigger one
+    public boolean isFull() {
+        return added > planned;
+    }
+
+    public int size() {
+        return added;
+    }
+
+    // independent copy, so a background merge can save it while signups keep adding
+    public EmailBloomFilter copy() {
+        return new EmailBloomFilter(bits.clone(), planned, added);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // ================= FILE =================
+    // stamp: which state of Customer_Data.txt the filter covers (length + head CRC)
+    public void save(File file, long coveredLength, long fingerprint) {
+        Path tmp = Paths.get(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(coveredLength);
+            out.writeLong(fingerprint);
+            out.writeInt(planned);
+            out.writeInt(added);
+            out.writeInt(bits.length);
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+        } catch (IOException e) {
+            System.out.println("Could not write " + file + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Could not replace " + file + ": " + e.getMessage());
+        }
+    }
+
+    // null when missing, damaged, or saved for a different state of the data file
+    public static EmailBloomFilter load(File file, long coveredLength, long fingerprint) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+            ByteBuffer header = ByteBuffer.allocate(4 + 4 + 8 + 8 + 4 + 4 + 4);
+            while (header.hasRemaining() && ch.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < header.capacity() || header.getInt() != MAGIC || header.getInt() != VERSION
+                    || header.getLong() != coveredLength || header.getLong() != fingerprint) {
+                return null;
+            }
+            int planned = header.getInt();
+            int added = header.getInt();
+            int words = header.getInt();
+            if (words <= 0 || ch.size() != header.capacity() + words * 8L) {
+                return null;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(words * 8);
+            while (body.hasRemaining() && ch.read(body) >= 0) { }
+            body.flip();
+            long[] bits = new long[words];
+            body.asLongBuffer().get(bits);
+            return new EmailBloomFilter(bits, planned, added);
+
+        } catch (IOException e) {
+            System.out.println("Ignoring " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
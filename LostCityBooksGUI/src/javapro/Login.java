@@ -1,7 +1,6 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.*;
 
 public class Login implements ActionListener {
 
@@ -10,8 +9,6 @@ public class Login implements ActionListener {
     private JPasswordField passwordField;
     private JButton loginBtn, registerBtn;
 
-    private static final String FILE_NAME = "data/Customer_Data.txt";
-
     // 🎨 Theme Colors
     private final Color BG = new Color(18,12,35);
     private final Color CARD = new Color(40,28,75);
@@ -135,29 +132,16 @@ public class Login implements ActionListener {
             return;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_NAME))) {
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-
-                String[] parts = line.split(",");
-                String name = parts[0].split(":")[1].trim();
-                String fileEmail = parts[1].split(":")[1].trim();
-                String filePassword = parts[2].split(":")[1].trim();
-                String gender = parts[3].split(":")[1].trim();
-
-                if (fileEmail.equals(email) && filePassword.equals(password)) {
-                    JOptionPane.showMessageDialog(frame, "✨ Welcome " + name);
-                    frame.dispose();
-                    new BookStore(new User(name, email, password, gender));
-                    return;
-                }
-            }
+        // one hash lookup + one line read, instead of splitting every line of the file
+        User user = UserIndex.get().find(email);
 
-            JOptionPane.showMessageDialog(frame, "❌ Invalid credentials.");
-
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(frame, "User file not found.");
+        if (user != null && user.getPassword().equals(password)) {
+            JOptionPane.showMessageDialog(frame, "✨ Welcome " + user.getName());
+            frame.dispose();
+            new BookStore(user);
+            return;
         }
+
+        JOptionPane.showMessageDialog(frame, "❌ Invalid credentials.");
     }
 }
@@ -0,0 +1,112 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class Purchase {
+
+    // 📦 What was bought: a snapshot, so the cart can be cleared right after checkout
+    public static class Item {
+
+        private final int bookId;
+        private final String title;
+        private final int priceCents;
+        private final int quantity;
+
+        public Item(int bookId, String title, int priceCents, int quantity) {
+            this.bookId = bookId;
+            this.title = title;
+            this.priceCents = priceCents;
+            this.quantity = quantity;
+        }
+
+        public int getBookId() { return bookId; }
+        public String getTitle() { return title; }
+        public int getPriceCents() { return priceCents; }
+        public int getQuantity() { return quantity; }
+    }
+
+    private final String name, email, gender;
+    private final LocalDateTime date;
+    private final List<Item> items;
+    private final long totalCents;
+
+    public Purchase(String name, String email, String gender, LocalDateTime date, List<Item> items, long totalCents) {
+        this.name = name;
+        this.email = email;
+        this.gender = gender;
+        this.date = date;
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.totalCents = totalCents;
+    }
+
+    public static Purchase of(User user, Cart cart) {
+        List<Item> items = new ArrayList<>();
+        for (Cart.Line line : cart.getLines()) {
+            Book b = line.getBook();
+            items.add(new Item(b.getId(), b.getTitle(), b.getPriceCents(), line.getQuantity()));
+        }
+        return new Purchase(user.getName(), user.getEmail(), user.getGender(),
+                LocalDateTime.now(), items, cart.getTotalCents());
+    }
+
+    public String getName() { return name; }
+    public String getEmail() { return email; }
+    public String getGender() { return gender; }
+    public LocalDateTime getDate() { return date; }
+    public List<Item> getItems() { return items; }
+    public long getTotalCents() { return totalCents; }
+
+    // ================= RENDERING =================
+    // 🧾 The receipt shown at checkout and appended to sales_report.txt
+    public String toReceipt() {
+
+        StringBuilder receipt = new StringBuilder();
+        receipt.append("🧾 LOST CITY BOOKS RECEIPT\n");
+        receipt.append("--------------------------------\n");
+        receipt.append("Customer Name : ").append(name).append("\n");
+        receipt.append("Email         : ").append(email).append("\n");
+        receipt.append("Gender        : ").append(gender).append("\n");
+        receipt.append("Date          : ").append(date).append("\n\n");
+
+        receipt.append("Purchased Items:\n");
+        for (Item item : items) {
+            receipt.append("• ").append(item.title)
+                    .append(" ($").append(dollars(item.priceCents)).append(")");
+            if (item.quantity > 1) receipt.append(" x").append(item.quantity);
+            receipt.append("\n");
+        }
+
+        receipt.append("\n--------------------------------\n");
+        receipt.append("TOTAL : $").append(dollars(totalCents)).append("\n");
+        receipt.append("--------------------------------\n");
+        receipt.append("✨ Thank you for shopping at Lost City Books!");
+        return receipt.toString();
+    }
+
+    // one entry of sales_report.txt
+    public String toSalesReportEntry() {
+        return toReceipt() + "\n\n====================================\n\n";
+    }
+
+    // one entry of purchases.txt
+    public String toPurchaseLog() {
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Customer: ").append(name).append("\n");
+        sb.append("Date: ").append(date).append("\n");
+        for (Item item : items) {
+            sb.append(" - ").append(item.title).append(" ($").append(dollars(item.priceCents)).append(")");
+            if (item.quantity > 1) sb.append(" x").append(item.quantity);
+            sb.append("\n");
+        }
+        sb.append("Total: $").append(dollars(totalCents)).append("\n");
+        sb.append("-------------------------------------\n");
+        return sb.toString();
+    }
+
+    // 4500 -> 45.0, same look as the old double prices
+    private static double dollars(long cents) {
+        return cents / 100.0;
+    }
+}
@@ -0,0 +1,210 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class PurchaseJournal {
+
+    public static final String PURCHASES_FILE = "data/purchases.txt";
+    public static final String SALES_REPORT_FILE = "data/sales_report.txt";
+
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int MAX_BATCH = 256;
+    private static final long FLUSH_EVERY_MS = 1000;
+
+    // 🛑 queued by close(): the writer finishes its batch and stops, no interrupt needed
+    private static final Purchase STOP = new Purchase("", "", "", LocalDateTime.MIN, new ArrayList<>(), 0);
+
+    private static PurchaseJournal shared;
+
+    private final File purchasesFile;
+    private final File salesReportFile;
+
+    // 📥 Checkout only puts a record here; the writer thread does all the disk work
+    private final BlockingQueue<Purchase> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    private volatile boolean closed;
+
+    // ✍️ Both files stay open between batches (guarded by this)
+    private FileOutputStream purchasesStream, salesStream;
+    private Writer purchasesOut, salesOut;
+    private boolean dirty;
+    private long lastSync = System.currentTimeMillis();
+
+    // 📊 For tests and the status line
+    private volatile long written;
+    private volatile long batches;
+
+    public PurchaseJournal(String purchasesFile, String salesReportFile) {
+        this.purchasesFile = new File(purchasesFile);
+        this.salesReportFile = new File(salesReportFile);
+        writer = new Thread(this::run, "purchase-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public static synchronized PurchaseJournal get() {
+        if (shared == null) {
+            shared = new PurchaseJournal(PURCHASES_FILE, SALES_REPORT_FILE);
+            // 🚪 closing the window exits the JVM; write whatever is still queued first
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "purchase-journal-close"));
+        }
+        return shared;
+    }
+
+    // ================= SUBMIT =================
+    // Returns at once unless a thousand purchases are already waiting; then it waits a
+    // little (backpressure) and, as a last resort, writes the record itself.
+    public void record(Purchase purchase) {
+        if (!closed) {
+            try {
+                if (queue.offer(purchase, 2, TimeUnit.SECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Purchase> one = new ArrayList<>();
+        one.add(purchase);
+        writeBatch(one);
+    }
+
+    public long getWrittenCount() {
+        return written;
+    }
+
+    public long getBatchCount() {
+        return batches;
+    }
+
+    // ================= WRITER THREAD =================
+    private void run() {
+
+        List<Purchase> batch = new ArrayList<>(MAX_BATCH);
+        boolean stopping = false;
+
+        while (!stopping) {
+            try {
+                Purchase first = queue.poll(FLUSH_EVERY_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1); // group commit: everyone who queued meanwhile
+                    stopping = batch.remove(STOP);
+                    if (!batch.isEmpty()) {
+                        writeBatch(batch);
+                    }
+                } else {
+                    stopping = closed; // STOP did not fit into a full queue; stop once it is empty
+                }
+                if (System.currentTimeMillis() - lastSync >= FLUSH_EVERY_MS) {
+                    sync();
+                }
+            } catch (InterruptedException e) {
+                // nobody should interrupt us; close() queues STOP instead
+            } catch (RuntimeException e) {
+                // a bad record must not kill the thread, or every later checkout waits and writes itself
+                System.out.println("Could not save " + batch.size() + " purchases: " + e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // one write + flush per file for the whole batch
+    private synchronized void writeBatch(List<Purchase> batch) {
+        try {
+            open();
+            StringBuilder purchases = new StringBuilder();
+            StringBuilder sales = new StringBuilder();
+            for (Purchase p : batch) {
+                purchases.append(p.toPurchaseLog());
+                sales.append(p.toSalesReportEntry());
+            }
+            purchasesOut.write(purchases.toString());
+            salesOut.write(sales.toString());
+            purchasesOut.flush();
+            salesOut.flush();
+            written += batch.size();
+            batches++;
+            dirty = true;
+        } catch (IOException e) {
+            System.out.println("Could not save " + batch.size() + " purchases: " + e.getMessage());
+            closeFiles(); // reopen on the next batch
+        }
+    }
+
+    // 💾 periodic flush: push what the OS holds for us onto the disk, at most once a second
+    private synchronized void sync() {
+        lastSync = System.currentTimeMillis();
+        if (!dirty || purchasesStream == null) {
+            return;
+        }
+        try {
+            purchasesStream.getChannel().force(false);
+            salesStream.getChannel().force(false);
+            dirty = false;
+        } catch (IOException e) {
+            System.out.println("Could not sync purchase files: " + e.getMessage());
+        }
+    }
+
+    // stops taking records, writes what is queued and closes both files. The writer is
+    // woken with STOP, not interrupted: an interrupt during force() would close the channel.
+    public void close() {
+        closed = true;
+        queue.offer(STOP);
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Purchase> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.remove(STOP); // the writer did not get to it in time
+        if (!rest.isEmpty()) {
+            writeBatch(rest);
+        }
+        synchronized (this) {
+            sync();
+            closeFiles();
+        }
+    }
+
+    // ================= FILES =================
+    // Opened once and kept open; appends only
+    private void open() throws IOException {
+        if (purchasesOut != null) {
+            return;
+        }
+        File dir = purchasesFile.getParentFile();
+        if (dir != null) {
+            dir.mkdirs();
+        }
+        purchasesStream = new FileOutputStream(purchasesFile, true);
+        salesStream = new FileOutputStream(salesReportFile, true);
+        purchasesOut = new BufferedWriter(new OutputStreamWriter(purchasesStream, StandardCharsets.UTF_8), 1 << 16);
+        salesOut = new BufferedWriter(new OutputStreamWriter(salesStream, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private void closeFiles() {
+        for (Closeable c : new Closeable[]{purchasesOut, salesOut, purchasesStream, salesStream}) {
+            if (c != null) {
+                try {
+                    c.close();
+                } catch (IOException e) {
+                    System.out.println("Could not close purchase file: " + e.getMessage());
+                }
+            }
+        }
+        purchasesOut = null;
+        salesOut = null;
+        purchasesStream = null;
+        salesStream = null;
+        dirty = false; // nothing left to force; the next batch reopens the files
+    }
+}
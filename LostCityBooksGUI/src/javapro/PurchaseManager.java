@@ -1,30 +1,12 @@
-import java.io.*;
-import java.time.LocalDateTime;
-
 public class PurchaseManager {
 
-    public void savePurchase(User user, Cart cart) {
-
-        try (BufferedWriter writer = new BufferedWriter(
-                new FileWriter("data/purchases.txt", true))) {
-
-            writer.write("Customer: " + user.getName());
-            writer.newLine();
-            writer.write("Date: " + LocalDateTime.now());
-            writer.newLine();
-
-            for (Book book : cart.getBooks()) {
-                writer.write(" - " + book.getTitle() + " ($" + book.getPrice() + ")");
-                writer.newLine();
-            }
-
-            writer.write("Total: $" + cart.getTotal());
-            writer.newLine();
-            writer.write("-------------------------------------");
-            writer.newLine();
+    // 📝 Purchases go through the shared journal: queued here, written in batches
+    //    to purchases.txt and sales_report.txt by its background thread
+    public void savePurchase(Purchase purchase) {
+        PurchaseJournal.get().record(purchase);
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    public void savePurchase(User user, Cart cart) {
+        savePurchase(Purchase.of(user, cart));
     }
 }
@@ -11,8 +11,6 @@ public class Registration {
     private JPasswordField passwordField;
     private JComboBox<String> genderBox;
 
-    private static final String FILE_NAME = "data/Customer_Data.txt";
-
     // 🎨 Theme Colors
     private final Color BG = new Color(18,12,35);
     private final Color CARD = new Color(40,28,75);
@@ -145,12 +143,14 @@ public class Registration {
             return;
         }
 
-        try (FileWriter writer = new FileWriter(FILE_NAME, true)) {
+        try {
 
-            writer.write("Name : " + name + ", ");
-            writer.write("Email : " + email + ", ");
-            writer.write("Password : " + password + ", ");
-            writer.write("Gender : " + genderBox.getSelectedItem() + "\n");
+            // duplicate check (bloom filter, exact lookup only on a maybe), append and index update
+            User user = new User(name, email, password, genderBox.getSelectedItem().toString());
+            if (!UserIndex.get().register(user)) {
+                JOptionPane.showMessageDialog(frame, "⚠️ An account with this email already exists.");
+                return;
+            }
 
             JOptionPane.showMessageDialog(frame, "✅ Registration Successful!");
             frame.dispose();
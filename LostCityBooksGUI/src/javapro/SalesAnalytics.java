@@ -0,0 +1,592 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SalesAnalytics {
+
+    // 📄 Records start with one of these lines; everything up to the next start belongs to it.
+    //    "User: mail, Date: ..."  old purchases.txt       " - Title - $29.99"
+    //    "Customer: name"         purchases.txt           " - Title ($29.99) x2"
+    //    "🧾 LOST CITY BOOKS ..."  sales_report.txt        "• Title ($29.99) x2"
+    private static final byte[][] RECORD_STARTS = {
+            "User: ".getBytes(StandardCharsets.UTF_8),
+            "Customer: ".getBytes(StandardCharsets.UTF_8),
+            "🧾 LOST CITY BOOKS RECEIPT".getBytes(StandardCharsets.UTF_8)
+    };
+
+    // 🧩 Files are cut into pieces of about this size, each parsed on its own thread
+    private static final long CHUNK_SIZE = 4L << 20;
+    private static final int WINDOW = 1 << 16;
+
+    // 🏷️ lower-case title -> category, from the catalog; unknown titles count as "Other"
+    private final Map<String, String> categoryByTitle = new HashMap<>();
+
+    public SalesAnalytics(BookCatalog catalog) {
+        for (int row = 0; row < catalog.size(); row++) {
+            categoryByTitle.putIfAbsent(catalog.getTitle(row).toLowerCase(), catalog.getCategory(row));
+        }
+    }
+
+    // ================= RUNNING =================
+    // purchases.txt and sales_report.txt describe the same sales, so analyze one of them
+    // (several files are fine when they hold different sales, e.g. rotated logs)
+    public Report analyze(String... fileNames) throws IOException {
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "sales-analytics");
+            t.setDaemon(true);
+            return t;
+        });
+
+        List<FileChannel> channels = new ArrayList<>();
+        try {
+            // all chunks of all files; each worker pulls the next one and keeps adding to
+            // its own report, so there are as many reports to merge as threads, not chunks
+            List<FileChannel> chunkFile = new ArrayList<>();
+            List<long[]> chunkRange = new ArrayList<>();
+            for (String fileName : fileNames) {
+                FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+                channels.add(channel);
+                long[] cuts = split(channel);
+                for (int i = 0; i + 1 < cuts.length; i++) {
+                    chunkFile.add(channel);
+                    chunkRange.add(new long[]{cuts[i], cuts[i + 1]});
+                }
+            }
+
+            AtomicInteger next = new AtomicInteger();
+            List<Future<Report>> parts = new ArrayList<>();
+            for (int t = 0; t < Math.min(threads, chunkRange.size()); t++) {
+                parts.add(pool.submit(() -> {
+                    RecordParser parser = new RecordParser();
+                    for (int c; (c = next.getAndIncrement()) < chunkRange.size(); ) {
+                        parse(chunkFile.get(c), chunkRange.get(c)[0], chunkRange.get(c)[1], parser);
+                    }
+                    return parser.report;
+                }));
+            }
+
+            Report total = new Report();
+            for (Future<Report> part : parts) {
+                total.merge(part.get());
+            }
+            return total;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Analysis interrupted");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException
+                    ? (IOException) e.getCause()
+                    : new IOException("Analysis failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    // ================= SPLITTING =================
+    // Cut points every CHUNK_SIZE bytes, each moved forward to the next record start,
+    // so no record is ever split between two threads
+    private static long[] split(FileChannel channel) throws IOException {
+
+        long size = channel.size();
+        List<Long> cuts = new ArrayList<>();
+        cuts.add(0L);
+        for (long at = CHUNK_SIZE; at < size; at += CHUNK_SIZE) {
+            long cut = nextRecordStart(channel, at, size);
+            if (cut > cuts.get(cuts.size() - 1) && cut < size) {
+                cuts.add(cut);
+            }
+            at = Math.max(at, cut);
+        }
+        cuts.add(size);
+
+        long[] out = new long[cuts.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = cuts.get(i);
+        }
+        return out;
+    }
+
+    // offset of the first line at or after 'from' that starts a record, or size
+    private static long nextRecordStart(FileChannel channel, long from, long size) throws IOException {
+
+        ByteBuffer head = ByteBuffer.allocate(32);
+        long line = from == 0 ? 0 : endOfLine(channel, from - 1, size);
+
+        while (line < size) {
+            head.clear();
+            int n = channel.read(head, line);
+            if (n > 0 && startsRecord(head.array(), 0, n)) {
+                return line;
+            }
+            line = endOfLine(channel, line, size);
+        }
+        return size;
+    }
+
+    // offset just past the first '\n' at or after 'from', or size
+    private static long endOfLine(FileChannel channel, long from, long size) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(WINDOW);
+        long pos = from;
+        while (pos < size) {
+            buffer.clear();
+            int n = channel.read(buffer, pos);
+            if (n <= 0) break;
+            byte[] b = buffer.array();
+            for (int i = 0; i < n; i++) {
+                if (b[i] == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    private static boolean startsRecord(byte[] b, int at, int end) {
+        for (byte[] start : RECORD_STARTS) {
+            if (at + start.length <= end
+                    && Arrays.equals(b, at, at + start.length, start, 0, start.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ================= PARSING =================
+    // One chunk, read through a window; memory depends on the number of distinct
+    // days, titles and customers, never on the size of the file
+    private void parse(FileChannel channel, long from, long to, RecordParser parser) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(WINDOW);
+        byte[] b = buffer.array();
+        int filled = 0;
+        long pos = from;
+
+        while (true) {
+            buffer.limit((int) Math.min(b.length, filled + (to - pos)));
+            buffer.position(filled);
+            int n = pos < to ? channel.read(buffer, pos) : -1;
+            boolean last = n <= 0;
+            if (n > 0) {
+                pos += n;
+                filled += n;
+            }
+
+            int lineStart = 0;
+            for (int i = 0; i < filled; i++) {
+                if (b[i] == '\n') {
+                    if (worthReading(b, lineStart, i)) {
+                        parser.line(new String(b, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            if (last) {
+                if (lineStart < filled) {
+                    parser.line(new String(b, lineStart, filled - lineStart, StandardCharsets.UTF_8));
+                }
+                break;
+            }
+
+            filled -= lineStart;
+            System.arraycopy(b, lineStart, b, 0, filled);
+            if (filled == b.length) { // one huge line; give it room
+                b = Arrays.copyOf(b, b.length * 2);
+                buffer = ByteBuffer.wrap(b);
+            }
+        }
+        parser.end(); // the chunk ends on a record boundary
+    }
+
+    // separators and blank lines carry nothing; skip them before decoding
+    private static boolean worthReading(byte[] b, int from, int to) {
+        return to > from && b[from] != '-' && b[from] != '=' && b[from] != '\r';
+    }
+
+    private class RecordParser {
+
+        private final Report report = new Report();
+        private final Map<String, String> categories = new HashMap<>(); // title as written -> category
+
+        // the record being read
+        private boolean open;
+        private String customer;
+        private String day;
+        private long totalCents;
+        private boolean hasTotal;
+        private final List<String> titles = new ArrayList<>();
+        private final List<long[]> amounts = new ArrayList<>(); // {price cents, quantity}
+
+        void line(String raw) {
+
+            String line = raw.endsWith("\r") ? raw.substring(0, raw.length() - 1) : raw;
+
+            if (line.startsWith("User: ")) {                         // User: mail, Date: ...
+                start();
+                int date = line.indexOf(", Date: ");
+                customer = (date < 0 ? line.substring(6) : line.substring(6, date)).trim();
+                if (date >= 0) day = dayOf(line.substring(date + 8));
+            } else if (line.startsWith("Customer: ")) {
+                start();
+                customer = line.substring(10).trim();
+            } else if (line.startsWith("🧾 LOST CITY BOOKS RECEIPT")) {
+                start();
+            } else if (!open) {
+                return;
+            } else if (line.startsWith("Date: ")) {
+                day = dayOf(line.substring(6));
+            } else if (line.startsWith("Customer Name")) {
+                if (customer == null) customer = valueOf(line);
+            } else if (line.startsWith("Email")) {
+                String email = valueOf(line);
+                if (!email.isEmpty()) customer = email.toLowerCase(); // email beats name
+            } else if (line.startsWith("Date ")) {
+                day = dayOf(valueOf(line));
+            } else if (line.startsWith(" - ") || line.startsWith("• ")) {
+                Purchase.Item item = parseItem(line);
+                if (item != null) {
+                    titles.add(item.getTitle());
+                    amounts.add(new long[]{item.getPriceCents(), item.getQuantity()});
+                }
+            } else if (line.startsWith("Total: $") || line.startsWith("TOTAL : $")) {
+                long cents = cents(line.substring(line.indexOf('$') + 1));
+                if (cents >= 0) {
+                    totalCents = cents;
+                    hasTotal = true;
+                }
+            }
+        }
+
+        private void start() {
+            end();
+            open = true;
+            customer = null;
+            day = null;
+            totalCents = 0;
+            hasTotal = false;
+            titles.clear();
+            amounts.clear();
+        }
+
+        void end() {
+            if (!open) {
+                return;
+            }
+            open = false;
+
+            long itemCents = 0;
+            for (int i = 0; i < titles.size(); i++) {
+                long[] a = amounts.get(i);
+                long cents = a[0] * a[1];
+                itemCents += cents;
+                String title = titles.get(i);
+                report.addTitle(title, a[1], cents);
+                report.add(report.revenueByCategory,
+                        categories.computeIfAbsent(title,
+                                t -> categoryByTitle.getOrDefault(t.toLowerCase(), "Other")), cents);
+            }
+
+            long revenue = hasTotal ? totalCents : itemCents;
+            report.orders++;
+            report.revenueCents += revenue;
+            report.add(report.revenueByDay, day == null ? "unknown" : day, revenue);
+            report.add(report.customerValue, customer == null ? "unknown" : customer, revenue);
+        }
+    }
+
+    // ================= LINE FORMATS =================
+    // also used by CoPurchaseModel to read purchase history
+    static boolean isRecordStart(String line) {
+        return line.startsWith("User: ") || line.startsWith("Customer: ")
+                || line.startsWith("🧾 LOST CITY BOOKS RECEIPT");
+    }
+
+    // " - Title ($29.99) x2", "• Title ($60) ($60.0)" (older receipts) or " - Title - $29.99";
+    // null when the line is not an item. The book id is not in the files, so it is 0.
+    static Purchase.Item parseItem(String line) {
+
+        String text;
+        if (line.startsWith(" - ")) text = line.substring(3);
+        else if (line.startsWith("• ")) text = line.substring(2);
+        else return null;
+
+        int quantity = 1;
+        int x = text.lastIndexOf(" x");
+        if (x > 0 && text.length() - x <= 8 && isDigits(text, x + 2, text.length())) {
+            quantity = Integer.parseInt(text.substring(x + 2));
+            text = text.substring(0, x);
+        }
+
+        long price;
+        if (text.endsWith(")") && text.lastIndexOf(" ($") > 0) {
+            int open = text.lastIndexOf(" ($");
+            price = cents(text.substring(open + 3, text.length() - 1));
+            text = text.substring(0, open);
+            if (text.endsWith(")") && text.lastIndexOf(" ($") > 0) {
+                text = text.substring(0, text.lastIndexOf(" ($")); // label price of old receipts
+            }
+        } else if (text.lastIndexOf(" - $") > 0) {
+            int dash = text.lastIndexOf(" - $");
+            price = cents(text.substring(dash + 4));
+            text = text.substring(0, dash);
+        } else {
+            return null;
+        }
+        if (price < 0 || price > Integer.MAX_VALUE) {
+            return null;
+        }
+        return new Purchase.Item(0, text.trim(), (int) price, quantity);
+    }
+
+    // "Email         : a@b.com" -> "a@b.com"
+    private static String valueOf(String line) {
+        int colon = line.indexOf(':');
+        return colon < 0 ? "" : line.substring(colon + 1).trim();
+    }
+
+    // 2026-01-07T22:10:57.73 -> 2026-01-07
+    private static String dayOf(String date) {
+        String d = date.trim();
+        return d.length() >= 10 ? d.substring(0, 10) : d;
+    }
+
+    // "29.99", "45.0", "65.97999999999999" -> cents, or -1
+    // (digits only; old totals like 65.97999999999999 round at the third decimal)
+    private static long cents(String money) {
+        String m = money.trim();
+        long cents = 0;
+        int decimals = -1;
+        for (int i = 0; i < m.length(); i++) {
+            char c = m.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (decimals < 2) {
+                    cents = cents * 10 + (c - '0');
+                    if (decimals >= 0) decimals++;
+                } else if (decimals == 2) {
+                    if (c >= '5') cents++;
+                    decimals = 3;
+                }
+            } else {
+                return -1;
+            }
+            if (cents > Long.MAX_VALUE / 1000) return -1;
+        }
+        if (m.isEmpty() || decimals == 0 && m.length() == 1) return -1;
+        for (int d = Math.max(decimals, 0); d < 2; d++) {
+            cents *= 10;
+        }
+        return cents;
+    }
+
+    private static boolean isDigits(String s, int from, int to) {
+        if (from >= to) return false;
+        for (int i = from; i < to; i++) {
+            if (!Character.isDigit(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // ================= REPORT =================
+    public static class Report {
+
+        private long orders;
+        private long revenueCents;
+        private final Map<String, long[]> revenueByDay = new HashMap<>();
+        private final Map<String, long[]> revenueByCategory = new HashMap<>();
+        private final Map<String, long[]> customerValue = new HashMap<>();
+        private final Map<String, long[]> titles = new HashMap<>(); // {units, cents}
+
+        private void add(Map<String, long[]> map, String key, long cents) {
+            long[] v = map.get(key);
+            if (v == null) map.put(key, new long[]{cents});
+            else v[0] += cents;
+        }
+
+        private void addTitle(String title, long units, long cents) {
+            long[] v = titles.get(title);
+            if (v == null) {
+                titles.put(title, new long[]{units, cents});
+            } else {
+                v[0] += units;
+                v[1] += cents;
+            }
+        }
+
+        private void merge(Report other) {
+            orders += other.orders;
+            revenueCents += other.revenueCents;
+            other.revenueByDay.forEach((k, v) -> add(revenueByDay, k, v[0]));
+            other.revenueByCategory.forEach((k, v) -> add(revenueByCategory, k, v[0]));
+            other.customerValue.forEach((k, v) -> add(customerValue, k, v[0]));
+            other.titles.forEach((k, v) -> addTitle(k, v[0], v[1]));
+        }
+
+        public long getOrders() { return orders; }
+        public long getRevenueCents() { return revenueCents; }
+
+        // day (yyyy-MM-dd) -> cents, in date order
+        public SortedMap<String, Long> getRevenueByDay() {
+            return sums(revenueByDay, new TreeMap<>());
+        }
+
+        public Map<String, Long> getRevenueByCategory() {
+            return sums(revenueByCategory, new TreeMap<>());
+        }
+
+        // customer (email, or name where the record has none) -> lifetime cents
+        public Map<String, Long> getCustomerValue() {
+            return sums(customerValue, new HashMap<>());
+        }
+
+        // best sellers by copies sold, then revenue
+        public List<TitleSales> getTopTitles(int k) {
+            PriorityQueue<TitleSales> heap = new PriorityQueue<>(TitleSales.ORDER);
+            for (Map.Entry<String, long[]> e : titles.entrySet()) {
+                heap.add(new TitleSales(e.getKey(), e.getValue()[0], e.getValue()[1]));
+                if (heap.size() > k) heap.poll(); // drop the weakest, keep k
+            }
+            List<TitleSales> top = new ArrayList<>(heap);
+            top.sort(TitleSales.ORDER.reversed());
+            return top;
+        }
+
+        public List<Map.Entry<String, Long>> getTopCustomers(int k) {
+            List<Map.Entry<String, Long>> all = new ArrayList<>(getCustomerValue().entrySet());
+            all.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            return all.subList(0, Math.min(k, all.size()));
+        }
+
+        private static <M extends Map<String, Long>> M sums(Map<String, long[]> from, M into) {
+            from.forEach((k, v) -> into.put(k, v[0]));
+            return into;
+        }
+
+        public String format(int k) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("📊 LOST CITY BOOKS SALES\n");
+            sb.append("Orders  : ").append(orders).append("\n");
+            sb.append("Revenue : $").append(money(revenueCents)).append("\n\n");
+
+            sb.append("Revenue per category:\n");
+            getRevenueByCategory().forEach((c, v) -> sb.append("  ").append(c).append(" : $").append(money(v)).append("\n"));
+
+            sb.append("\nTop ").append(k).append(" titles:\n");
+            for (TitleSales t : getTopTitles(k)) {
+                sb.append("  ").append(t.getTitle()).append(" : ").append(t.getUnits())
+                        .append(" sold, $").append(money(t.getRevenueCents())).append("\n");
+            }
+
+            sb.append("\nTop ").append(k).append(" customers:\n");
+            for (Map.Entry<String, Long> e : getTopCustomers(k)) {
+                sb.append("  ").append(e.getKey()).append(" : $").append(money(e.getValue())).append("\n");
+            }
+
+            SortedMap<String, Long> days = getRevenueByDay();
+            sb.append("\nRevenue per day (").append(days.size()).append(" days):\n");
+            int shown = 0;
+            for (Map.Entry<String, Long> e : days.entrySet()) {
+                if (shown++ == 31) {
+                    sb.append("  ...\n");
+                    break;
+                }
+                sb.append("  ").append(e.getKey()).append(" : $").append(money(e.getValue())).append("\n");
+            }
+            return sb.toString();
+        }
+
+        private static String money(long cents) {
+            return String.format("%d.%02d", cents / 100, Math.abs(cents % 100));
+        }
+    }
+
+    public static class TitleSales {
+
+        static final Comparator<TitleSales> ORDER = Comparator.comparingLong(TitleSales::getUnits)
+                .thenComparingLong(TitleSales::getRevenueCents)
+                .thenComparing(TitleSales::getTitle, Comparator.reverseOrder());
+
+        private final String title;
+        private final long units;
+        private final long revenueCents;
+
+        TitleSales(String title, long units, long revenueCents) {
+            this.title = title;
+            this.units = units;
+            this.revenueCents = revenueCents;
+        }
+
+        public String getTitle() { return title; }
+        public long getUnits() { return units; }
+        public long getRevenueCents() { return revenueCents; }
+    }
+
+    // ================= COMMAND LINE =================
+    // java SalesAnalytics [file ...]   : report for the files (default data/purchases.txt)
+    // java SalesAnalytics --bench [n]  : writes data/purchases_bench.txt once and times it
+    public static void main(String[] args) throws IOException {
+
+        SalesAnalytics analytics = new SalesAnalytics(BookCatalog.load(BookCatalog.FILE_NAME));
+
+        if (args.length > 0 && args[0].equals("--bench")) {
+            int count = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+            String file = "data/purchases_bench.txt";
+            if (!new File(file).isFile()) {
+                writeBench(file, count);
+            }
+            for (int run = 1; run <= 3; run++) {
+                long start = System.nanoTime();
+                Report report = analytics.analyze(file);
+                System.out.println("run " + run + ": " + report.getOrders() + " orders in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+            System.out.println(analytics.analyze(file).format(5));
+            return;
+        }
+
+        String[] files = args.length > 0 ? args : new String[]{PurchaseJournal.PURCHASES_FILE};
+        System.out.println(analytics.analyze(files).format(10));
+    }
+
+    // mostly today's format, with some old "User:" records mixed in
+    private static void writeBench(String file, int count) throws IOException {
+        String[] titles = {"Oppenheimer", "Interstellar", "Inception", "Attack on Titan", "Naruto",
+                "Demon Slayer", "One Piece", "The Silent Goodbye", "Atomic Habits", "Clean Code"};
+        Random random = new Random(7);
+        try (BufferedWriter w = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                String date = String.format("2026-%02d-%02dT10:00:00", 1 + random.nextInt(12), 1 + random.nextInt(28));
+                int lines = 1 + random.nextInt(3);
+                long total = 0;
+                boolean legacy = random.nextInt(10) == 0;
+                if (legacy) {
+                    w.write("User: user" + random.nextInt(50_000) + "@mail.com, Date: " + date + "\n");
+                } else {
+                    w.write("Customer: Customer " + random.nextInt(50_000) + "\nDate: " + date + "\n");
+                }
+                for (int l = 0; l < lines; l++) {
+                    int cents = 3000 + random.nextInt(30) * 100;
+                    int qty = 1 + (random.nextInt(4) == 0 ? random.nextInt(3) : 0);
+                    total += (long) cents * qty;
+                    String title = titles[random.nextInt(titles.length)];
+                    w.write(legacy
+                            ? " - " + title + " - $" + cents / 100.0 + "\n"
+                            : " - " + title + " ($" + cents / 100.0 + ")" + (qty > 1 ? " x" + qty : "") + "\n");
+                }
+                w.write("Total: $" + total / 100.0 + "\n");
+                w.write(legacy ? "--------------------------------------------------\n" : "-------------------------------------\n");
+            }
+        }
+    }
+}
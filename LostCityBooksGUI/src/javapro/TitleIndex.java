@@ -0,0 +1,232 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TitleIndex {
+
+    // 📚 Rows are catalog rows; category postings come straight from the catalog's partitions
+    private final BookCatalog catalog;
+
+    // 🔤 Trigram postings, built by build(): an open-addressing table from trigram to a
+    //    slice of one shared int[] of rows (rows ascending within each slice)
+    private long[] keys;
+    private int[] starts;
+    private int[] counts;
+    private int[] postings;
+    private String[] lower; // lower-cased titles, what we match against
+    private volatile boolean ready;
+
+    public TitleIndex(BookCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    // ================= BUILDING =================
+    // Two passes over the titles: count each trigram's rows, then fill the shared array.
+    // Safe to run on a background thread; search() scans the catalog until it is done.
+    public void build() {
+
+        int n = catalog.size();
+        String[] text = new String[n];
+        int capacity = Integer.highestOneBit(Math.max(n * 4, 1024)) * 2;
+        long[] k = new long[capacity];
+        int[] c = new int[capacity];
+        int[] lastRow = new int[capacity];
+        int used = 0;
+
+        // pass 1: count
+        for (int row = 0; row < n; row++) {
+            String t = catalog.getTitle(row).toLowerCase();
+            text[row] = t;
+            for (int i = 0; i + 3 <= t.length(); i++) {
+                long key = key(t, i);
+                int slot = slot(k, key);
+                if (k[slot] == 0) {
+                    k[slot] = key;
+                    lastRow[slot] = -1;
+                    if (++used * 2 > k.length) {
+                        // grow and re-insert; counts move with their keys
+                        long[] nk = new long[k.length * 2];
+                        int[] nc = new int[nk.length];
+                        int[] nl = new int[nk.length];
+                        for (int s = 0; s < k.length; s++) {
+                            if (k[s] != 0) {
+                                int ns = slot(nk, k[s]);
+                                nk[ns] = k[s];
+                                nc[ns] = c[s];
+                                nl[ns] = lastRow[s];
+                            }
+                        }
+                        k = nk;
+                        c = nc;
+                        lastRow = nl;
+                        slot = slot(k, key);
+                    }
+                }
+                if (lastRow[slot] != row) { // a trigram repeated in one title is posted once
+                    lastRow[slot] = row;
+                    c[slot]++;
+                }
+            }
+        }
+
+        // offsets into the shared postings array
+        int[] s = new int[k.length];
+        int total = 0;
+        for (int i = 0; i < k.length; i++) {
+            s[i] = total;
+            total += c[i];
+        }
+
+        // pass 2: fill, rows arrive in ascending order
+        int[] p = new int[total];
+        int[] fill = s.clone();
+        Arrays.fill(lastRow, -1);
+        for (int row = 0; row < n; row++) {
+            String t = text[row];
+            for (int i = 0; i + 3 <= t.length(); i++) {
+                int slot = slot(k, key(t, i));
+                if (lastRow[slot] != row) {
+                    lastRow[slot] = row;
+                    p[fill[slot]++] = row;
+                }
+            }
+        }
+
+        keys = k;
+        starts = s;
+        counts = c;
+        postings = p;
+        lower = text;
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ================= SEARCHING =================
+    // previous: the last result; when the query only grew, we filter that instead of the index
+    public Result search(String query, String category, Result previous) {
+
+        String q = query == null ? "" : query.toLowerCase();
+        String cat = category == null ? "All" : category;
+
+        int[] rows;
+        if (previous != null && previous.category.equals(cat)
+                && !previous.query.isEmpty() && q.startsWith(previous.query)) {
+            rows = previous.rows; // everything containing q also contained the shorter query
+        } else {
+            rows = candidates(q, cat);
+        }
+
+        if (!q.isEmpty()) {
+            rows = verify(rows, q);
+        }
+        return new Result(q, cat, rows);
+    }
+
+    private int[] candidates(String q, String category) {
+
+        int[] base = category.equals("All") ? null : catalog.getCategoryRows(category);
+
+        if (q.length() < 3 || !ready) {
+            return base != null ? base : allRows(); // verify() scans these
+        }
+
+        // intersect the trigram lists, shortest first
+        List<int[]> lists = new ArrayList<>();
+        if (base != null) {
+            lists.add(base);
+        }
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            int slot = slot(keys, key(q, i));
+            if (keys[slot] == 0) {
+                return new int[0];
+            }
+            lists.add(Arrays.copyOfRange(postings, starts[slot], starts[slot] + counts[slot]));
+        }
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    // trigrams can match out of order, so every candidate is checked against the real title
+    private int[] verify(int[] rows, String q) {
+        String[] text = ready ? lower : null;
+        int[] out = new int[rows.length];
+        int n = 0;
+        for (int row : rows) {
+            boolean match = text != null
+                    ? text[row].contains(q)
+                    : catalog.getTitle(row).toLowerCase().contains(q);
+            if (match) {
+                out[n++] = row;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private int[] allRows() {
+        int[] rows = new int[catalog.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // three chars packed into one long; never 0 because the top char is shifted in with +1
+    private static long key(String s, int i) {
+        return ((long) (s.charAt(i) + 1) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static int slot(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = (int) (key * 0x9E3779B97F4A7C15L >>> 40) & mask;
+        while (table[slot] != 0 && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // ================= RESULT =================
+    public static class Result {
+
+        private final String query;
+        private final String category;
+        private final int[] rows;
+
+        Result(String query, String category, int[] rows) {
+            this.query = query;
+            this.category = category;
+            this.rows = rows;
+        }
+
+        public int size() {
+            return rows.length;
+        }
+
+        // catalog row of the index-th result
+        public int getRow(int index) {
+            return rows[index];
+        }
+    }
+}
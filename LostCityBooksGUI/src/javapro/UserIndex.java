@@ -0,0 +1,514 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class UserIndex {
+
+    public static final String DATA_FILE = "data/Customer_Data.txt";
+    public static final String INDEX_FILE = "data/Customer_Data.idx";
+    public static final String BLOOM_FILE = "data/Customer_Data.bloom";
+
+    private static final int MAGIC = 0x4C43_5549; // "LCUI"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4;
+    private static final int FINGERPRINT_BYTES = 4096;
+
+    // 🔁 once this many users live only in the overlay, they are merged into the on-disk index
+    //    (on a background thread when a signup crosses the mark)
+    private static final int REBUILD_AFTER = 1024;
+
+    private static UserIndex shared;
+
+    private final File dataFile;
+    private final File indexFile;
+    private final File bloomFile;
+
+    // 🗂️ Hash table: slot i = (email hash, line offset) at [2i, 2i + 1]; hash 0 = empty.
+    //    Covers the data file up to coveredLength; it is mapped from the .idx file when valid.
+    private LongBuffer table;
+    private int capacity;
+    private int tableCount;
+    private long coveredLength;
+    private long fingerprint;
+
+    // ➕ Users after coveredLength: normalized email -> line offset; overlayEnd = end of the last one
+    private final Map<String, Long> overlay = new HashMap<>();
+    private long overlayEnd;
+
+    // 🌸 Every indexed email, so most new signups are cleared without touching the index
+    private EmailBloomFilter bloom;
+
+    // 🧵 true while a background merge is building the next table
+    private boolean merging;
+
+    public UserIndex(String dataFile, String indexFile, String bloomFile) {
+        this.dataFile = new File(dataFile);
+        this.indexFile = new File(indexFile);
+        this.bloomFile = new File(bloomFile);
+        open();
+    }
+
+    // Login and Registration share one index for the whole app
+    public static synchronized UserIndex get() {
+        if (shared == null) {
+            shared = new UserIndex(DATA_FILE, INDEX_FILE, BLOOM_FILE);
+        }
+        return shared;
+    }
+
+    // ================= OPENING =================
+    private void open() {
+        if (!mapIndexFile()) {
+            rebuild();
+            return;
+        }
+        bloom = EmailBloomFilter.load(bloomFile, coveredLength, fingerprint);
+        if (bloom == null) {
+            rebuild();
+            return;
+        }
+        // users registered after the index was written (or by an older build)
+        overlayEnd = scan(coveredLength, (email, offset) -> {
+            if (overlay.putIfAbsent(email, offset) == null) {
+                bloom.add(hash(email));
+            }
+        });
+        if (overlay.size() >= REBUILD_AFTER) {
+            install(merge(table, capacity, tableCount, bloom, new ArrayList<>(overlay.entrySet()), overlayEnd));
+        }
+    }
+
+    // true when the .idx file exists and still describes the start of the data file
+    private boolean mapIndexFile() {
+        if (!indexFile.isFile() || !dataFile.isFile()) {
+            return false;
+        }
+        try (FileChannel ch = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && ch.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return false;
+            }
+            long covered = header.getLong();
+            long stamp = header.getLong();
+            int cap = header.getInt();
+            int count = header.getInt();
+
+            if (covered > dataFile.length() || stamp != fingerprint(covered)
+                    || Integer.bitCount(cap) != 1 || ch.size() != HEADER_BYTES + (long) cap * 16) {
+                return false; // data file was rewritten or truncated since
+            }
+
+            table = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) cap * 16).asLongBuffer();
+            capacity = cap;
+            tableCount = count;
+            coveredLength = covered;
+            fingerprint = stamp;
+            return true;
+
+        } catch (IOException e) {
+            System.out.println("Ignoring " + indexFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // one pass over the whole data file, then the table is saved for the next start
+    private void rebuild() {
+        install(scanAll());
+        overlay.clear();
+        overlayEnd = coveredLength;
+    }
+
+    // ================= MERGING =================
+    // 🧱 A table and its filter built off the live index, saved before it is swapped in
+    private static final class Built {
+        LongBuffer table;
+        int capacity;
+        int count;
+        EmailBloomFilter bloom;
+        long coveredLength;
+        long fingerprint;
+    }
+
+    private Built scanAll() {
+
+        long[][] columns = {new long[1024], new long[1024]}; // hashes, offsets
+        int[] count = {0};
+
+        long end = scan(0, (email, offset) -> {
+            if (count[0] == columns[0].length) {
+                columns[0] = Arrays.copyOf(columns[0], count[0] * 2);
+                columns[1] = Arrays.copyOf(columns[1], count[0] * 2);
+            }
+            columns[0][count[0]] = hash(email);
+            columns[1][count[0]] = offset;
+            count[0]++;
+        });
+
+        Built built = fill(columns[0], columns[1], count[0]);
+        built.bloom = new EmailBloomFilter(count[0] * 2);
+        for (int i = 0; i < count[0]; i++) {
+            built.bloom.add(columns[0][i]);
+        }
+        built.coveredLength = end;
+        save(built);
+        return built;
+    }
+
+    // Folds the users into a copy of the table: O(table) memory copy, no file scan.
+    // Users in the overlay come after everything in the table, so file order holds.
+    // Only when the table or the filter outgrows its size is the data file scanned again.
+    private Built merge(LongBuffer base, int baseCapacity, int baseCount, EmailBloomFilter filter,
+                        List<Map.Entry<String, Long>> users, long end) {
+
+        int total = baseCount + users.size();
+        if (total * 2 > baseCapacity || filter.isFull()) {
+            return scanAll();
+        }
+
+        long[] slots = new long[baseCapacity * 2];
+        base.get(0, slots);
+
+        users.sort(Map.Entry.comparingByValue());
+        for (Map.Entry<String, Long> user : users) {
+            long h = hash(user.getKey());
+            int slot = (int) h & (baseCapacity - 1);
+            while (slots[slot * 2] != 0) {
+                slot = (slot + 1) & (baseCapacity - 1);
+            }
+            slots[slot * 2] = h;
+            slots[slot * 2 + 1] = user.getValue();
+        }
+
+        Built built = new Built();
+        built.table = LongBuffer.wrap(slots);
+        built.capacity = baseCapacity;
+        built.count = total;
+        built.bloom = filter;
+        built.coveredLength = end;
+        save(built);
+        return built;
+    }
+
+    // Copies what the merge needs and builds the next table on its own thread, so the
+    // signup that crosses REBUILD_AFTER does not pay for it. Meanwhile signups still go
+    // to the overlay and lookups use the current table. Caller holds the lock.
+    private void startMerge() {
+
+        merging = true;
+        LongBuffer base = table;
+        int baseCapacity = capacity;
+        int baseCount = tableCount;
+        EmailBloomFilter filter = bloom.copy();
+        List<Map.Entry<String, Long>> users = new ArrayList<>();
+        for (Map.Entry<String, Long> user : overlay.entrySet()) {
+            users.add(Map.entry(user.getKey(), user.getValue()));
+        }
+        long end = overlayEnd;
+
+        Thread merger = new Thread(() -> {
+            Built built = null;
+            try {
+                built = merge(base, baseCapacity, baseCount, filter, users, end);
+            } catch (RuntimeException e) {
+                System.out.println("Could not merge new users into " + indexFile + ": " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    if (built != null) {
+                        install(built);
+                    }
+                    merging = false;
+                }
+            }
+        }, "user-index-merge");
+        merger.setDaemon(true);
+        merger.start();
+    }
+
+    // Swaps in a built table; users it covers leave the overlay, later ones go into its filter
+    private void install(Built built) {
+        table = built.table;
+        capacity = built.capacity;
+        tableCount = built.count;
+        coveredLength = built.coveredLength;
+        fingerprint = built.fingerprint;
+        bloom = built.bloom;
+        overlay.values().removeIf(offset -> offset < built.coveredLength);
+        for (String email : overlay.keySet()) {
+            bloom.add(hash(email));
+        }
+    }
+
+    // entries go in file order, so among equal hashes the first registration is probed first
+    private static Built fill(long[] hashes, long[] offsets, int count) {
+        int cap = Math.max(1024, Integer.highestOneBit(Math.max(count, 1) * 2) * 2);
+        long[] slots = new long[cap * 2];
+        for (int i = 0; i < count; i++) {
+            int slot = (int) hashes[i] & (cap - 1);
+            while (slots[slot * 2] != 0) {
+                slot = (slot + 1) & (cap - 1);
+            }
+            slots[slot * 2] = hashes[i];
+            slots[slot * 2 + 1] = offsets[i];
+        }
+        Built built = new Built();
+        built.table = LongBuffer.wrap(slots);
+        built.capacity = cap;
+        built.count = count;
+        return built;
+    }
+
+    // reads only the data file and the built table, so it runs without the lock
+    private void save(Built built) {
+        built.fingerprint = fingerprint(built.coveredLength);
+        built.bloom.save(bloomFile, built.coveredLength, built.fingerprint);
+        Path tmp = Paths.get(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(built.coveredLength);
+            out.writeLong(built.fingerprint);
+            out.writeInt(built.capacity);
+            out.writeInt(built.count);
+            for (int i = 0; i < built.capacity * 2; i++) {
+                out.writeLong(built.table.get(i));
+            }
+        } catch (IOException e) {
+            System.out.println("Could not write " + indexFile + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Could not replace " + indexFile + ": " + e.getMessage());
+        }
+    }
+
+    // CRC of the first bytes of the data file, so a rewritten file is not trusted
+    private long fingerprint(long length) {
+        CRC32 crc = new CRC32();
+        try (InputStream in = new FileInputStream(dataFile)) {
+            byte[] head = in.readNBytes((int) Math.min(length, FINGERPRINT_BYTES));
+            crc.update(head);
+        } catch (IOException e) {
+            return -1;
+        }
+        return crc.getValue();
+    }
+
+    // ================= LOOKUP =================
+    public synchronized User find(String email) {
+
+        String key = normalize(email);
+        if (key.isEmpty()) {
+            return null;
+        }
+
+        long h = hash(key);
+        int slot = (int) h & (capacity - 1);
+        while (table.get(slot * 2) != 0) {
+            if (table.get(slot * 2) == h) {
+                User user = readUser(table.get(slot * 2 + 1));
+                if (user != null && normalize(user.getEmail()).equals(key)) {
+                    return user;
+                }
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+
+        Long offset = overlay.get(key);
+        return offset == null ? null : readUser(offset);
+    }
+
+    public boolean contains(String email) {
+        return find(email) != null;
+    }
+
+    public synchronized int size() {
+        return tableCount + overlay.size();
+    }
+
+    // ================= REGISTER =================
+    // appends the user to Customer_Data.txt and indexes it; false if the email is taken
+    public synchronized boolean register(User user) throws IOException {
+
+        String key = normalize(user.getEmail());
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Email is required");
+        }
+        // the bloom filter answers "new email" for almost every signup; only a maybe
+        // (a real duplicate or a ~1% false positive) costs an index lookup
+        long h = hash(key);
+        if (bloom.mightContain(h) && find(key) != null) {
+            return false;
+        }
+
+        String line = "Name : " + user.getName() + ", "
+                + "Email : " + user.getEmail() + ", "
+                + "Password : " + user.getPassword() + ", "
+                + "Gender : " + user.getGender() + "\n";
+
+        try (FileOutputStream out = new FileOutputStream(dataFile, true)) {
+            long offset = out.getChannel().size();
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes);
+            overlay.put(key, offset);
+            overlayEnd = offset + bytes.length;
+            bloom.add(h);
+        }
+
+        if (overlay.size() >= REBUILD_AFTER && !merging) {
+            startMerge();
+        }
+        return true;
+    }
+
+    // ================= PARSING =================
+    private interface LineVisitor {
+        void user(String normalizedEmail, long offset);
+    }
+
+    // Streams the data file from 'from', handing each line with an email to the visitor.
+    // Returns where the last complete line ends.
+    private long scan(long from, LineVisitor visitor) {
+
+        if (!dataFile.isFile()) {
+            return 0;
+        }
+        try (FileChannel ch = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ)) {
+
+            ch.position(from);
+            ByteBuffer window = ByteBuffer.allocate(1 << 16);
+            long windowStart = from; // file offset of window[0]
+            long lineStart = from;
+
+            while (true) {
+                int n = ch.read(window);
+                byte[] buf = window.array();
+                int filled = window.position();
+                int pos = (int) (lineStart - windowStart);
+
+                for (int i = pos; i < filled; i++) {
+                    if (buf[i] == '\n') {
+                        String email = emailOf(new String(buf, pos, i - pos, StandardCharsets.UTF_8));
+                        if (email != null) {
+                            visitor.user(email, windowStart + pos);
+                        }
+                        pos = i + 1;
+                    }
+                }
+                lineStart = windowStart + pos;
+                if (n < 0) {
+                    return lineStart; // an unfinished last line is picked up next time
+                }
+
+                // move the unfinished line to the front; grow if it fills the window
+                window.flip();
+                window.position(pos);
+                window.compact();
+                windowStart += pos;
+                if (!window.hasRemaining()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(window.capacity() * 2);
+                    window.flip();
+                    bigger.put(window);
+                    window = bigger;
+                }
+            }
+
+        } catch (IOException e) {
+            System.out.println("Could not read " + dataFile + ": " + e.getMessage());
+            return from;
+        }
+    }
+
+    private User readUser(long offset) {
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile, "r")) {
+            raf.seek(offset);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            byte[] buf = new byte[256];
+            int n;
+            outer:
+            while ((n = raf.read(buf)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    if (buf[i] == '\n') {
+                        line.write(buf, 0, i);
+                        break outer;
+                    }
+                }
+                line.write(buf, 0, n);
+            }
+            return parseUser(line.toString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("Could not read user at " + offset + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // "Name : an,Email : an@gmail.com,Password : 123,Gender : Male" in any field order.
+    // A piece without ':' belongs to the previous value (a comma inside a name or password);
+    // missing fields come back empty instead of throwing.
+    static User parseUser(String line) {
+
+        Map<String, String> fields = new HashMap<>();
+        String lastKey = null;
+
+        for (String piece : line.split(",", -1)) {
+            int colon = piece.indexOf(':');
+            String key = colon < 0 ? null : piece.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            if (key != null && (key.equals("name") || key.equals("email")
+                    || key.equals("password") || key.equals("gender"))) {
+                fields.put(key, piece.substring(colon + 1).trim());
+                lastKey = key;
+            } else if (lastKey != null) {
+                fields.put(lastKey, (fields.get(lastKey) + "," + piece).trim());
+            }
+        }
+
+        String email = fields.getOrDefault("email", "");
+        if (email.isEmpty()) {
+            return null;
+        }
+        return new User(fields.getOrDefault("name", ""), email,
+                fields.getOrDefault("password", ""), fields.getOrDefault("gender", ""));
+    }
+
+    // fast path for the index: just the Email field; unusual lines go through parseUser
+    private static String emailOf(String line) {
+        int label = line.indexOf("Email");
+        int colon = label < 0 ? -1 : line.indexOf(':', label);
+        if (colon < 0 || !line.substring(label + 5, colon).isBlank()) {
+            User user = parseUser(line);
+            return user == null ? null : normalize(user.getEmail());
+        }
+        int end = line.indexOf(',', colon);
+        String email = normalize(line.substring(colon + 1, end < 0 ? line.length() : end));
+        return email.isEmpty() ? null : email;
+    }
+
+    static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // 64-bit FNV-1a; never 0, which marks an empty slot
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 29;
+        return h == 0 ? 1 : h;
+    }
+}
@@ -0,0 +1,67 @@
+package Entity;
+
+import java.io.File;
+
+/**
+ * Branch class - one café outlet and the data directory that holds its shard
+ * Immutable; the set of branches comes from BranchRegistry (Data/branches.txt).
+ */
+public final class Branch {
+    // VARIABLE LEGEND: id, name, address, dataDir
+    private final String id;
+    private final String name;
+    private final String address;
+    private final String dataDir;
+
+    public Branch(String id, String name, String address, String dataDir) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Branch id cannot be null or empty");
+        }
+        if (id.contains("|")) {
+            throw new IllegalArgumentException("Branch id cannot contain '|'");
+        }
+        if (dataDir == null || dataDir.trim().isEmpty()) {
+            throw new IllegalArgumentException("Branch data directory cannot be null or empty");
+        }
+        this.id = id.trim();
+        this.name = name != null ? name.trim() : this.id;
+        this.address = address != null ? address.trim() : "";
+        this.dataDir = dataDir.trim();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getDataDir() {
+        return dataDir;
+    }
+
+    // Path of a file inside this branch's data directory, e.g. file("data.txt")
+    public String file(String fileName) {
+        return dataDir + File.separator + fileName;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Branch && id.equals(((Branch) obj).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + address + ")";
+    }
+}
@@ -0,0 +1,129 @@
+package Entity;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * BranchGroup class - group-level view over all branch shards
+ * Each shard summarizes its own orders on its own task; the partial SalesSummary
+ * results are then merged. Raw orders never leave their shard.
+ *
+ * Usage: java Entity.BranchGroup [topN]   writes Data/group_report.txt
+ */
+public class BranchGroup {
+    public static final String DEFAULT_REPORT_FILE = "Data/group_report.txt";
+
+    // VARIABLE LEGEND: shards (registry order)
+    private final List<BranchShard> shards;
+
+    public BranchGroup(List<BranchShard> shards) {
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("Branch group needs at least one shard");
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+    }
+
+    // Opens every branch of the registry for reporting, in parallel; running terminals are left alone
+    public static BranchGroup open(BranchRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Branch registry cannot be null");
+        }
+        List<CompletableFuture<BranchShard>> opening = new ArrayList<>();
+        for (Branch branch : registry.getBranches()) {
+            opening.add(CompletableFuture.supplyAsync(() -> BranchShard.openForReport(branch)));
+        }
+        List<BranchShard> opened = new ArrayList<>();
+        for (CompletableFuture<BranchShard> f : opening) {
+            opened.add(f.join());
+        }
+        return new BranchGroup(opened);
+    }
+
+    public List<BranchShard> getShards() {
+        return shards;
+    }
+
+    // SECTION: Aggregation
+    // One summary per branch, computed concurrently
+    public Map<Branch, SalesSummary> summarizeBranches() {
+        List<CompletableFuture<SalesSummary>> partials = new ArrayList<>(shards.size());
+        for (BranchShard shard : shards) {
+            partials.add(CompletableFuture.supplyAsync(shard::summarize));
+        }
+        Map<Branch, SalesSummary> out = new LinkedHashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            out.put(shards.get(i).getBranch(), partials.get(i).join());
+        }
+        return out;
+    }
+
+    public SalesSummary summarizeGroup() {
+        return merge(summarizeBranches().values());
+    }
+
+    static SalesSummary merge(Collection<SalesSummary> partials) {
+        SalesSummary total = SalesSummary.EMPTY;
+        for (SalesSummary partial : partials) {
+            total = total.merge(partial);
+        }
+        return total;
+    }
+
+    // SECTION: Report
+    public void writeReport(String path, int topN) {
+        Map<Branch, SalesSummary> byBranch = summarizeBranches();
+        SalesSummary group = merge(byBranch.values());
+        PersistenceEvent event = PersistenceEvent.start("report.group", path);
+        try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+            writer.println("=== GROUP SALES REPORT ===");
+            writer.println("Generated on: " + java.time.LocalDateTime.now());
+            writer.println();
+            writer.println("BY BRANCH:");
+            for (Map.Entry<Branch, SalesSummary> e : byBranch.entrySet()) {
+                SalesSummary s = e.getValue();
+                writer.println(String.format("%-24s orders: %5d  revenue: %10.2f৳  avg: %8.2f৳",
+                        e.getKey().getName() + " (" + e.getKey().getId() + ")",
+                        s.getOrderCount(), s.getRevenue(), s.getAverageOrderValue()));
+            }
+            writer.println();
+            writer.println("GROUP TOTAL:");
+            writer.println("Total Orders: " + group.getOrderCount());
+            writer.println("Total Revenue: " + String.format("%.2f", group.getRevenue()) + "৳");
+            writer.println("Average Order Value: " + String.format("%.2f", group.getAverageOrderValue()) + "৳");
+            writer.println();
+            writer.println("TOP ITEMS (orders not yet partitioned):");
+            for (Map.Entry<String, Long> e : group.topItems(topN)) {
+                writer.println(e.getKey() + ": " + e.getValue());
+            }
+            writer.println();
+            writer.println("TOP CUSTOMERS BY SPENDING (orders not yet partitioned):");
+            for (Map.Entry<String, Double> e : group.topCustomers(topN)) {
+                writer.println(e.getKey() + ": " + String.format("%.2f", e.getValue()) + "৳");
+            }
+        } catch (IOException e) {
+            System.err.println("Error generating group report: " + e.getMessage());
+            throw new RuntimeException("Failed to generate group report", e);
+        } finally {
+            event.finish((int) group.getOrderCount(), new File(path));
+        }
+    }
+
+    public void close() {
+        for (BranchShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    public static void main(String[] args) {
+        int topN = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        TierPolicy.setActive(TierPolicy.loadFromFile(TierPolicy.DEFAULT_TIERS_FILE));
+        BranchGroup group = open(BranchRegistry.loadFromFile(BranchRegistry.DEFAULT_BRANCHES_FILE));
+        try {
+            group.writeReport(DEFAULT_REPORT_FILE, topN);
+            System.out.println("Group report written to " + DEFAULT_REPORT_FILE);
+        } finally {
+            group.close();
+        }
+    }
+}
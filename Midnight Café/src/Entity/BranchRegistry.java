@@ -0,0 +1,121 @@
+package Entity;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * BranchRegistry class - the outlets this installation knows about
+ * File format is one branch per line: id|name|address|dataDir
+ * The first branch is the default; orders saved before branches existed belong to it.
+ * The default branch keeps using the plain Data/ directory, so a single-outlet
+ * install looks exactly as it did before.
+ */
+public class BranchRegistry {
+    public static final String DEFAULT_BRANCHES_FILE = "Data/branches.txt";
+
+    private static volatile BranchRegistry active = defaults();
+
+    // VARIABLE LEGEND: branches (file order), byId
+    private final List<Branch> branches;
+    private final Map<String, Branch> byId;
+
+    // SECTION: Constructors
+    public BranchRegistry(List<Branch> branches) {
+        if (branches == null || branches.isEmpty()) {
+            throw new IllegalArgumentException("Branch registry needs at least one branch");
+        }
+        Map<String, Branch> map = new LinkedHashMap<>();
+        for (Branch branch : branches) {
+            if (map.putIfAbsent(branch.getId(), branch) != null) {
+                throw new IllegalArgumentException("Duplicate branch id: " + branch.getId());
+            }
+        }
+        this.branches = Collections.unmodifiableList(new ArrayList<>(map.values()));
+        this.byId = map;
+    }
+
+    public static BranchRegistry defaults() {
+        return new BranchRegistry(Collections.singletonList(
+                new Branch("dhanmondi", "Aninda Dhaba", "Dhanmondi, Dhaka", "Data")));
+    }
+
+    // SECTION: Active registry
+    public static BranchRegistry getActive() {
+        return active;
+    }
+
+    public static void setActive(BranchRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Branch registry cannot be null");
+        }
+        active = registry;
+    }
+
+    // SECTION: Lookup
+    public List<Branch> getBranches() {
+        return branches;
+    }
+
+    public Branch getDefault() {
+        return branches.get(0);
+    }
+
+    // Returns null when there is no branch with that id
+    public Branch get(String id) {
+        return id != null ? byId.get(id) : null;
+    }
+
+    // Unknown or missing ids (e.g. orders from before branches) fall back to the default branch
+    public Branch resolve(String id) {
+        Branch branch = get(id);
+        return branch != null ? branch : getDefault();
+    }
+
+    // SECTION: FILE I/O methods with EXCEPTION HANDLING
+    public static BranchRegistry loadFromFile(String path) {
+        File file = new File(path);
+        if (!file.exists()) {
+            BranchRegistry registry = defaults();
+            registry.saveToFile(path);
+            return registry;
+        }
+
+        List<Branch> loaded = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\|");
+                if (parts.length >= 4) {
+                    loaded.add(new Branch(parts[0], parts[1], parts[2], parts[3]));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading branches: " + e.getMessage());
+            return defaults();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error parsing branches: " + e.getMessage());
+            return defaults();
+        }
+        return loaded.isEmpty() ? defaults() : new BranchRegistry(loaded);
+    }
+
+    public void saveToFile(String path) {
+        File parent = new File(path).getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+            writer.println("# id|name|address|dataDir");
+            for (Branch branch : branches) {
+                writer.println(branch.getId() + "|" + branch.getName() + "|" + branch.getAddress() + "|" + branch.getDataDir());
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving branches: " + e.getMessage());
+            throw new RuntimeException("Failed to save branches", e);
+        }
+    }
+}
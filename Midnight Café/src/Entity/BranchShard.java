@@ -0,0 +1,103 @@
+package Entity;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * BranchShard class - everything one outlet owns: its menu, orders and journal
+ * All files live in the branch's data directory; shards never read each other's
+ * orders. Cross-branch numbers come from summarize() results, see BranchGroup.
+ */
+public class BranchShard {
+    // VARIABLE LEGEND: branch, menuManager, orderService
+    private final Branch branch;
+    private final MenuManager menuManager;
+    private final OrderServiceImpl orderService;
+
+    private BranchShard(Branch branch, MenuManager menuManager, OrderServiceImpl orderService) {
+        this.branch = branch;
+        this.menuManager = menuManager;
+        this.orderService = orderService;
+    }
+
+    // Opens the branch's menu and recovers its orders from the branch journal
+    public static BranchShard open(Branch branch) {
+        if (branch == null) {
+            throw new IllegalArgumentException("Branch cannot be null");
+        }
+        File dir = new File(branch.getDataDir());
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        MenuManager menu = new MenuManager(branch.file("data.txt"));
+        OrderServiceImpl service = new OrderServiceImpl(menu, branch);
+        service.setKitchenDispatcher(new KitchenDispatcher());
+        service.attachJournal(new OrderJournal(branch.file("orders.wal"), branch.file("orders.snap"),
+                OrderJournal.DEFAULT_SNAPSHOT_EVERY));
+        service.setPartitionStore(new OrderPartitionStore(branch.file("orders")));
+        return new BranchShard(branch, menu, service);
+    }
+
+    /**
+     * Opens the branch for reporting while its terminal may be running: orders are
+     * read from the journal without writing it (see OrderJournal.readOrders), and no
+     * journal or kitchen is attached, so nothing here can disturb the terminal.
+     */
+    public static BranchShard openForReport(Branch branch) {
+        if (branch == null) {
+            throw new IllegalArgumentException("Branch cannot be null");
+        }
+        MenuManager menu = new MenuManager(branch.file("data.txt"));
+        OrderServiceImpl service = new OrderServiceImpl(menu, branch);
+        List<Order> orders = new OrderJournal(branch.file("orders.wal"), branch.file("orders.snap"),
+                OrderJournal.DEFAULT_SNAPSHOT_EVERY).readOrders(menu);
+        for (Order order : orders) {
+            if (order.getBranchId() == null) { // this journal is the branch's own shard
+                order.setBranchId(branch.getId());
+            }
+        }
+        service.setAllOrders(orders);
+        service.setPartitionStore(new OrderPartitionStore(branch.file("orders")));
+        return new BranchShard(branch, menu, service);
+    }
+
+    public Branch getBranch() {
+        return branch;
+    }
+
+    public MenuManager getMenuManager() {
+        return menuManager;
+    }
+
+    public OrderServiceImpl getOrderService() {
+        return orderService;
+    }
+
+    // Runs inside this shard; only the aggregate leaves it. Partitioned days add their
+    // header totals (no order is read back), so item and customer rankings cover live orders.
+    public SalesSummary summarize() {
+        SalesSummary live = SalesSummary.of(orderService.getAllOrders());
+        OrderPartitionStore store = orderService.getPartitionStore();
+        if (store == null) {
+            return live;
+        }
+        long sold = 0;
+        double revenue = 0.0;
+        for (OrderPartitionStore.PartitionHeader h : store.getHeaders()) {
+            sold += h.getSoldCount();
+            revenue += h.getRevenue();
+        }
+        return live.merge(SalesSummary.ofTotals(sold, revenue));
+    }
+
+    public void close() {
+        KitchenDispatcher kitchen = orderService.getKitchenDispatcher();
+        if (kitchen != null) {
+            kitchen.shutdown();
+        }
+        OrderJournal journal = orderService.getJournal();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
@@ -15,6 +15,8 @@ public class Customer implements Serializable
     private LocalDateTime registrationDate; //registrationDate
     private int totalOrders; //totalOrders
     private double totalSpent; //totalSpent
+    private transient CustomerTier tier; //cached tier, see currentTier()
+    private transient int tierVersion; //TierPolicy version the cached tier came from
     
     public Customer() 
     {
@@ -97,39 +99,87 @@ public class Customer implements Serializable
     }
     
     public void setPhoneNumber(String s4) {
-        if (s4 != null && !s4.matches("\\d{10,15}")) {
+        if (s4 != null && !isValidPhoneNumber(s4)) {
             throw new IllegalArgumentException("Phone number must be 11 digits");
         }
         this.phoneNumber = s4 != null ? s4 : "";
     }
     
     public void setEmail(String s5) {
-        if (s5 != null && !s5.matches("^[A-Za-z0-9+_.-]+@(.+)$")) {
+        if (s5 != null && !isValidEmail(s5)) {
             throw new IllegalArgumentException("Invalid email format");
         }
         this.email = s5 != null ? s5 : "";
     }
     
+    // SECTION: Validation helpers
+    // Hand-written equivalents of the "\\d{10,15}" and "^[A-Za-z0-9+_.-]+@(.+)$"
+    // patterns, so bulk imports don't compile a regex per field
+    public static boolean isValidPhoneNumber(String phone) {
+        int len = phone.length();
+        if (len < 10 || len > 15) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            char c = phone.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public static boolean isValidEmail(String email) {
+        int at = email.indexOf('@');
+        if (at <= 0 || at == email.length() - 1) {
+            return false;
+        }
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            boolean ok = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '+' || c == '_' || c == '.' || c == '-';
+            if (!ok) {
+                return false;
+            }
+        }
+        for (int i = at + 1; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     public void updateOrderStats(double orderAmount) {
+        CustomerTier oldTier = currentTier();
         this.totalOrders++;
         this.totalSpent += orderAmount;
+        
+        TierPolicy policy = TierPolicy.getActive();
+        this.tier = policy.tierFor(totalSpent);
+        this.tierVersion = policy.getVersion();
+        if (tier != oldTier) {
+            TierPolicy.fireTierChange(this, oldTier, tier);
+        }
+    }
+    
+    // Tier is recomputed only when spending changes or the active policy is replaced
+    public CustomerTier currentTier() {
+        TierPolicy policy = TierPolicy.getActive();
+        if (tier == null || tierVersion != policy.getVersion()) {
+            tier = policy.tierFor(totalSpent);
+            tierVersion = policy.getVersion();
+        }
+        return tier;
     }
     
     public String getCustomerTier() {
-        if (totalSpent >= 5000) return "Gold";
-        if (totalSpent >= 2000) return "Silver";
-        if (totalSpent >= 500) return "Bronze";
-        return "Regular";
+        return currentTier().getName();
     }
     
     public double getDiscountRate() {
-        String tier = getCustomerTier();
-        switch (tier) {
-            case "Gold": return 0.15; // 15% discount
-            case "Silver": return 0.10; // 10% discount
-            case "Bronze": return 0.05; // 5% discount
-            default: return 0.0; // No discount
-        }
+        return currentTier().getDiscountRate();
     }
     
     @Override
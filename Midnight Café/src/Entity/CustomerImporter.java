@@ -0,0 +1,282 @@
+package Entity;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * CustomerImporter class - bulk loads customers from CSV files
+ * Expected columns: name,age,gender[,phoneNumber[,email]] with an optional header row.
+ * Lines are validated in parallel chunks; bad rows are reported with their line
+ * number instead of aborting the whole import.
+ */
+public class CustomerImporter {
+    private static final int DEFAULT_CHUNK_SIZE = 10_000;
+
+    // VARIABLE LEGEND: chunkSize, parallelism
+    private final int chunkSize;
+    private final int parallelism;
+
+    // SECTION: Constructors
+    public CustomerImporter() {
+        this(DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CustomerImporter(int chunkSize, int parallelism) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    // SECTION: Import entry points
+    public ImportResult importFile(String csvPath) {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        ImportResult result = new ImportResult();
+        // Keep at most two chunks per worker in flight so memory stays bounded
+        Deque<Future<ImportResult>> inFlight = new ArrayDeque<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(csvPath), StandardCharsets.UTF_8), 1 << 16)) {
+            String[] chunk = new String[chunkSize];
+            int filled = 0;
+            int chunkStartLine = 1;
+            int lineNumber = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && isHeader(line)) {
+                    chunkStartLine = 2;
+                    continue;
+                }
+                chunk[filled++] = line;
+                if (filled == chunkSize) {
+                    submitChunk(pool, inFlight, result, chunk, filled, chunkStartLine);
+                    chunk = new String[chunkSize];
+                    filled = 0;
+                    chunkStartLine = lineNumber + 1;
+                }
+            }
+            if (filled > 0) {
+                submitChunk(pool, inFlight, result, chunk, filled, chunkStartLine);
+            }
+            while (!inFlight.isEmpty()) {
+                result.merge(await(inFlight.poll()));
+            }
+            result.linesRead = lineNumber;
+        } catch (IOException e) {
+            System.err.println("Error importing customers: " + e.getMessage());
+            throw new RuntimeException("Failed to import customers", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return result;
+    }
+
+    // Imports the file and merges accepted rows into DataManager customer storage
+    public ImportResult importIntoStorage(String csvPath) {
+        ImportResult result = importFile(csvPath);
+        Set<Customer> merged = new LinkedHashSet<>(DataManager.loadCustomers());
+        int before = merged.size();
+        merged.addAll(result.getCustomers());
+        result.duplicates = result.getCustomers().size() - (merged.size() - before);
+        DataManager.saveCustomers(new ArrayList<>(merged));
+        return result;
+    }
+
+    // SECTION: Chunk processing
+    private void submitChunk(ExecutorService pool, Deque<Future<ImportResult>> inFlight, ImportResult result,
+                             String[] lines, int count, int firstLineNumber) {
+        while (inFlight.size() >= parallelism * 2) {
+            result.merge(await(inFlight.poll()));
+        }
+        inFlight.add(pool.submit(() -> parseChunk(lines, count, firstLineNumber)));
+    }
+
+    private ImportResult await(Future<ImportResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Customer import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to import customers", e.getCause());
+        }
+    }
+
+    private ImportResult parseChunk(String[] lines, int count, int firstLineNumber) {
+        ImportResult partial = new ImportResult();
+        List<String> fields = new ArrayList<>(5);
+        for (int i = 0; i < count; i++) {
+            int lineNumber = firstLineNumber + i;
+            String line = lines[i];
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            fields.clear();
+            splitCsv(line, fields);
+            String error = validate(fields);
+            if (error != null) {
+                partial.rejects.add(new Reject(lineNumber, line, error));
+                continue;
+            }
+            partial.customers.add(toCustomer(fields));
+        }
+        return partial;
+    }
+
+    // Mirrors the Customer setters, but returns a reason instead of throwing
+    private String validate(List<String> fields) {
+        if (fields.size() < 3 || fields.size() > 5) {
+            return "Expected 3 to 5 columns but found " + fields.size();
+        }
+        if (fields.get(0).isEmpty()) {
+            return "Name cannot be null or empty";
+        }
+        int age = parseAge(fields.get(1));
+        if (age < 0 || age > 150) {
+            return "Age must be between 0 and 150";
+        }
+        if (fields.get(2).isEmpty()) {
+            return "Gender cannot be null or empty";
+        }
+        if (fields.size() > 3 && !fields.get(3).isEmpty() && !Customer.isValidPhoneNumber(fields.get(3))) {
+            return "Phone number must be 11 digits";
+        }
+        if (fields.size() > 4 && !fields.get(4).isEmpty() && !Customer.isValidEmail(fields.get(4))) {
+            return "Invalid email format";
+        }
+        return null;
+    }
+
+    private Customer toCustomer(List<String> fields) {
+        Customer customer = new Customer(fields.get(0), parseAge(fields.get(1)), fields.get(2));
+        if (fields.size() > 3 && !fields.get(3).isEmpty()) {
+            customer.setPhoneNumber(fields.get(3));
+        }
+        if (fields.size() > 4 && !fields.get(4).isEmpty()) {
+            customer.setEmail(fields.get(4));
+        }
+        return customer;
+    }
+
+    // Returns -1 for anything that is not a plain non-negative integer
+    private static int parseAge(String text) {
+        if (text.isEmpty() || text.length() > 3) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isHeader(String line) {
+        return line.regionMatches(true, 0, "name,", 0, 5) || line.regionMatches(true, 0, "\"name\",", 0, 7);
+    }
+
+    // Splits one CSV line; supports double-quoted fields with "" escapes and trims values
+    static void splitCsv(String line, List<String> out) {
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        out.add(field.toString().trim());
+    }
+
+    // SECTION: Result types
+    public static class ImportResult {
+        private final List<Customer> customers = new ArrayList<>();
+        private final List<Reject> rejects = new ArrayList<>();
+        private int linesRead;
+        private int duplicates;
+
+        private void merge(ImportResult other) {
+            customers.addAll(other.customers);
+            rejects.addAll(other.rejects);
+        }
+
+        public List<Customer> getCustomers() {
+            return customers;
+        }
+
+        public List<Reject> getRejects() {
+            return rejects;
+        }
+
+        public int getLinesRead() {
+            return linesRead;
+        }
+
+        // Only filled in by importIntoStorage: rows already present in storage
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Imported %d customers from %d lines (%d rejected, %d duplicates)",
+                                 customers.size(), linesRead, rejects.size(), duplicates);
+        }
+    }
+
+    public static class Reject {
+        private final int lineNumber;
+        private final String line;
+        private final String reason;
+
+        public Reject(int lineNumber, String line, String reason) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + reason;
+        }
+    }
+}
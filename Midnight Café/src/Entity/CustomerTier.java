@@ -0,0 +1,44 @@
+package Entity;
+
+/**
+ * CustomerTier class - one loyalty tier of a TierPolicy
+ * Immutable so it can be cached on customers and shared between threads
+ */
+public final class CustomerTier {
+    // VARIABLE LEGEND: name, minSpent, discountRate
+    private final String name;
+    private final double minSpent;
+    private final double discountRate;
+
+    public CustomerTier(String name, double minSpent, double discountRate) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Tier name cannot be null or empty");
+        }
+        if (minSpent < 0) {
+            throw new IllegalArgumentException("Tier threshold cannot be negative");
+        }
+        if (discountRate < 0 || discountRate > 1) {
+            throw new IllegalArgumentException("Discount rate must be between 0 and 1");
+        }
+        this.name = name.trim();
+        this.minSpent = minSpent;
+        this.discountRate = discountRate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getMinSpent() {
+        return minSpent;
+    }
+
+    public double getDiscountRate() {
+        return discountRate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (from %.2f৳, %.0f%% off)", name, minSpent, discountRate * 100);
+    }
+}
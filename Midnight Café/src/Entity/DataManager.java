@@ -9,48 +9,72 @@ import java.util.List;
  * Demonstrates FILE I/O, EXCEPTION HANDLING, and ENCAPSULATION
  */
 public class DataManager {
-    private static final String ORDERS_FILE = "Data/orders.dat";
+    private static final String ORDERS_FILE = "Data/orders.dat"; // legacy single file, migrated on first load
     private static final String CUSTOMERS_FILE = "Data/customers.dat";
     private static final String REPORTS_FILE = "Data/reports.txt";
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
     
     // Private constructor to prevent instantiation (utility class)
     private DataManager() {}
     
-    // Save orders to file with EXCEPTION HANDLING
-    public static void saveOrders(List<Order> orders) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(ORDERS_FILE))) {
-            oos.writeObject(orders);
-            System.out.println("Orders saved successfully to " + ORDERS_FILE);
-        } catch (IOException e) {
-            System.err.println("Error saving orders: " + e.getMessage());
-            throw new RuntimeException("Failed to save orders", e);
+    // Save orders into the day partitions of the service's store; only touched days are rewritten
+    public static void saveOrders(OrderPartitionStore store, List<Order> orders) {
+        long start = System.nanoTime();
+        try {
+            store.store(orders);
+            System.out.println("Orders saved successfully to " + store.getDirectory());
+        } finally {
+            METRICS.recordTime("data.saveOrders", start);
+        }
+    }
+    
+    // Load every partition; a legacy orders.dat is moved into partitions the first time
+    public static List<Order> loadOrders(OrderPartitionStore store) {
+        if (store.isEmpty()) {
+            List<Order> legacy = loadLegacyOrders();
+            if (!legacy.isEmpty()) {
+                store.store(legacy);
+                return legacy;
+            }
         }
+        return store.loadAll();
+    }
+    
+    public static List<Order> loadOrders(OrderPartitionStore store, java.time.LocalDate startDate, java.time.LocalDate endDate) {
+        return store.getOrdersByDateRange(startDate, endDate);
     }
     
-    // Load orders from file with EXCEPTION HANDLING
+    // Load orders from the old single file with EXCEPTION HANDLING
     @SuppressWarnings("unchecked")
-    public static List<Order> loadOrders() {
+    private static List<Order> loadLegacyOrders() {
         File file = new File(ORDERS_FILE);
         if (!file.exists()) {
             return new ArrayList<>();
         }
         
+        PersistenceEvent event = PersistenceEvent.start("orders.load", ORDERS_FILE);
+        List<Order> orders = new ArrayList<>();
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-            return (List<Order>) ois.readObject();
+            orders = (List<Order>) ois.readObject();
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Error loading orders: " + e.getMessage());
-            return new ArrayList<>();
+        } finally {
+            event.finish(orders.size(), file);
         }
+        return orders;
     }
     
     // Save customers to file with EXCEPTION HANDLING
     public static void saveCustomers(List<Customer> customers) {
+        PersistenceEvent event = PersistenceEvent.start("customers.save", CUSTOMERS_FILE);
         try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(CUSTOMERS_FILE))) {
             oos.writeObject(customers);
             System.out.println("Customers saved successfully to " + CUSTOMERS_FILE);
         } catch (IOException e) {
             System.err.println("Error saving customers: " + e.getMessage());
             throw new RuntimeException("Failed to save customers", e);
+        } finally {
+            event.finish(customers.size(), new File(CUSTOMERS_FILE));
         }
     }
     
@@ -62,16 +86,21 @@ public class DataManager {
             return new ArrayList<>();
         }
         
+        PersistenceEvent event = PersistenceEvent.start("customers.load", CUSTOMERS_FILE);
+        List<Customer> customers = new ArrayList<>();
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-            return (List<Customer>) ois.readObject();
+            customers = (List<Customer>) ois.readObject();
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Error loading customers: " + e.getMessage());
-            return new ArrayList<>();
+        } finally {
+            event.finish(customers.size(), file);
         }
+        return customers;
     }
     
     // Generate and save reports with EXCEPTION HANDLING
     public static void generateReport(List<Order> orders, List<Customer> customers) {
+        PersistenceEvent event = PersistenceEvent.start("report.generate", REPORTS_FILE);
         try (PrintWriter writer = new PrintWriter(new FileWriter(REPORTS_FILE))) {
             writer.println("=== ANINDA DHABA SALES REPORT ===");
             writer.println("Generated on: " + java.time.LocalDateTime.now());
@@ -108,30 +137,109 @@ public class DataManager {
         } catch (IOException e) {
             System.err.println("Error generating report: " + e.getMessage());
             throw new RuntimeException("Failed to generate report", e);
+        } finally {
+            event.finish(orders.size(), new File(REPORTS_FILE));
+        }
+    }
+    
+    // Report for a date range; order figures come from partition headers, no orders are read
+    public static void generateReport(OrderPartitionStore store, java.time.LocalDate startDate, java.time.LocalDate endDate,
+                                      List<Customer> customers) {
+        List<OrderPartitionStore.PartitionHeader> days = store.getHeaders(startDate, endDate);
+        long sold = 0;
+        long placed = 0;
+        double revenue = 0.0;
+        for (OrderPartitionStore.PartitionHeader h : days) {
+            sold += h.getSoldCount();
+            placed += h.getOrderCount();
+            revenue += h.getRevenue();
+        }
+        PersistenceEvent event = PersistenceEvent.start("report.generateRange", REPORTS_FILE);
+        try (PrintWriter writer = new PrintWriter(new FileWriter(REPORTS_FILE))) {
+            writer.println("=== ANINDA DHABA SALES REPORT ===");
+            writer.println("Generated on: " + java.time.LocalDateTime.now());
+            writer.println("Period: " + startDate + " to " + endDate);
+            writer.println();
+            
+            writer.println("ORDER STATISTICS:");
+            writer.println("Orders Placed: " + placed);
+            writer.println("Orders Sold: " + sold);
+            writer.println("Total Revenue: " + String.format("%.2f", revenue) + "৳");
+            writer.println("Average Order Value: " + String.format("%.2f", sold == 0 ? 0.0 : revenue / sold) + "৳");
+            writer.println();
+            
+            writer.println("DAILY REVENUE:");
+            for (OrderPartitionStore.PartitionHeader h : days) {
+                writer.println(h.getDay() + ": " + String.format("%.2f", h.getRevenue()) + "৳ (" + h.getSoldCount() + " orders)");
+            }
+            writer.println();
+            
+            writer.println("CUSTOMER STATISTICS:");
+            writer.println("Total Customers: " + customers.size());
+        } catch (IOException e) {
+            System.err.println("Error generating report: " + e.getMessage());
+            throw new RuntimeException("Failed to generate report", e);
+        } finally {
+            event.finish((int) sold, new File(REPORTS_FILE));
         }
     }
     
     // Backup data with EXCEPTION HANDLING
     public static void backupData() {
+        backupData(new File(OrderPartitionStore.DEFAULT_DIR));
+    }
+    
+    // Same, taking the order partitions from the store the order service uses
+    public static void backupData(OrderPartitionStore store) {
+        backupData(store.getDirectory());
+    }
+    
+    private static void backupData(File ordersDir) {
         String timestamp = java.time.LocalDateTime.now().toString().replace(":", "-");
         String backupDir = "cafe/Data/backup_" + timestamp;
+        PersistenceEvent event = PersistenceEvent.start("data.backup", backupDir);
+        int files = 0;
+        long bytes = 0;
         
         try {
             new File(backupDir).mkdirs();
             
             // Backup orders
             if (new File(ORDERS_FILE).exists()) {
-                copyFile(ORDERS_FILE, backupDir + "/orders.dat");
+                bytes += copyFile(ORDERS_FILE, backupDir + "/orders.dat");
+                files++;
+            }
+            
+            // Backup order partitions
+            File[] partitions = ordersDir.listFiles((d, name) -> name.endsWith(".dat"));
+            if (partitions != null && partitions.length > 0) {
+                new File(backupDir + "/orders").mkdirs();
+                for (File p : partitions) {
+                    bytes += copyFile(p.getPath(), backupDir + "/orders/" + p.getName());
+                    files++;
+                }
+            }
+            
+            // Backup compressed order archives
+            File[] archives = new File(ordersDir, "archive").listFiles((d, name) -> name.endsWith(".arc"));
+            if (archives != null && archives.length > 0) {
+                new File(backupDir + "/orders/archive").mkdirs();
+                for (File a : archives) {
+                    bytes += copyFile(a.getPath(), backupDir + "/orders/archive/" + a.getName());
+                    files++;
+                }
             }
             
             // Backup customers
             if (new File(CUSTOMERS_FILE).exists()) {
-                copyFile(CUSTOMERS_FILE, backupDir + "/customers.dat");
+                bytes += copyFile(CUSTOMERS_FILE, backupDir + "/customers.dat");
+                files++;
             }
             
             // Backup reports
             if (new File(REPORTS_FILE).exists()) {
-                copyFile(REPORTS_FILE, backupDir + "/reports.txt");
+                bytes += copyFile(REPORTS_FILE, backupDir + "/reports.txt");
+                files++;
             }
             
             System.out.println("Data backed up to: " + backupDir);
@@ -139,19 +247,24 @@ public class DataManager {
         } catch (IOException e) {
             System.err.println("Error creating backup: " + e.getMessage());
             throw new RuntimeException("Failed to create backup", e);
+        } finally {
+            event.finish(files, bytes);
         }
     }
     
-    // Helper method for file copying
-    private static void copyFile(String source, String destination) throws IOException {
+    // Helper method for file copying; returns the number of bytes copied
+    private static long copyFile(String source, String destination) throws IOException {
         try (FileInputStream fis = new FileInputStream(source);
              FileOutputStream fos = new FileOutputStream(destination)) {
             
             byte[] buffer = new byte[1024];
             int length;
+            long total = 0;
             while ((length = fis.read(buffer)) > 0) {
                 fos.write(buffer, 0, length);
+                total += length;
             }
+            return total;
         }
     }
     
@@ -0,0 +1,218 @@
+package Entity;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KitchenDispatcher class - moves confirmed orders through "preparing" and "ready"
+ * A confirmed order is split into one ticket per station (drinks bar vs. grill)
+ * and queued on that station's priority queue. Station screens call takeTicket
+ * and completeTicket; an idle station steals from the longest other queue.
+ * Queue-wait and prep-time histograms per station show where the bottleneck is.
+ * Cancelled or cleared orders are withdrawn, which takes their queued tickets off
+ * the stations; shutdown() empties every queue when the terminal closes.
+ */
+public class KitchenDispatcher {
+    public static final int NORMAL_PRIORITY = 0;
+    public static final int RUSH_PRIORITY = 10;
+
+    // VARIABLE LEGEND: queues, pendingTickets, ticketsByOrder, queueWait, prepTime, stolen, sequence, workStealing, shutDown
+    private final Map<KitchenStation, PriorityBlockingQueue<KitchenTicket>> queues = new EnumMap<>(KitchenStation.class);
+    private final Map<Order, AtomicInteger> pendingTickets = new ConcurrentHashMap<>();
+    private final Map<Order, List<KitchenTicket>> ticketsByOrder = new ConcurrentHashMap<>(); // orders still in the kitchen
+    private final Map<KitchenStation, LatencyHistogram> queueWait = new EnumMap<>(KitchenStation.class);
+    private final Map<KitchenStation, LatencyHistogram> prepTime = new EnumMap<>(KitchenStation.class);
+    private final Map<KitchenStation, AtomicLong> stolen = new EnumMap<>(KitchenStation.class);
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean workStealing;
+    private volatile boolean shutDown;
+
+    // SECTION: Constructors
+    public KitchenDispatcher() {
+        this(true);
+    }
+
+    public KitchenDispatcher(boolean workStealing) {
+        for (KitchenStation station : KitchenStation.values()) {
+            queues.put(station, new PriorityBlockingQueue<>());
+            queueWait.put(station, new LatencyHistogram());
+            prepTime.put(station, new LatencyHistogram());
+            stolen.put(station, new AtomicLong());
+        }
+        this.workStealing = workStealing;
+    }
+
+    public void setWorkStealing(boolean workStealing) {
+        this.workStealing = workStealing;
+    }
+
+    public boolean isWorkStealing() {
+        return workStealing;
+    }
+
+    // SECTION: Dispatch
+    public List<KitchenTicket> dispatch(Order order) {
+        return dispatch(order, NORMAL_PRIORITY);
+    }
+
+    public List<KitchenTicket> dispatch(Order order, int priority) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        if (!"confirmed".equals(order.getOrderStatus())) {
+            throw new IllegalStateException("Only confirmed orders can be sent to the kitchen");
+        }
+        if (shutDown) {
+            throw new IllegalStateException("Kitchen dispatcher is shut down");
+        }
+
+        Map<KitchenStation, List<OrderItem>> byStation = new EnumMap<>(KitchenStation.class);
+        for (OrderItem oi : order.getItems()) {
+            byStation.computeIfAbsent(KitchenStation.forItem(oi.getItem()), s -> new ArrayList<>()).add(oi);
+        }
+
+        List<KitchenTicket> tickets = new ArrayList<>(byStation.size());
+        for (Map.Entry<KitchenStation, List<OrderItem>> e : byStation.entrySet()) {
+            tickets.add(new KitchenTicket(order, e.getKey(), e.getValue(), priority, sequence.incrementAndGet()));
+        }
+        // Register the count before anything is visible to the stations
+        pendingTickets.put(order, new AtomicInteger(tickets.size()));
+        ticketsByOrder.put(order, tickets);
+        order.setOrderStatus("preparing");
+        for (KitchenTicket ticket : tickets) {
+            queues.get(ticket.getStation()).add(ticket);
+        }
+        return tickets;
+    }
+
+    // SECTION: Station side
+    // Next ticket for the station, or null when there is nothing to do anywhere
+    public KitchenTicket takeTicket(KitchenStation station) {
+        if (station == null) {
+            throw new IllegalArgumentException("Station cannot be null");
+        }
+        KitchenTicket ticket = queues.get(station).poll();
+        if (ticket == null && workStealing) {
+            ticket = steal(station);
+        }
+        if (ticket != null) {
+            queueWait.get(ticket.getStation()).record(ticket.markStarted(station));
+        }
+        return ticket;
+    }
+
+    public void completeTicket(KitchenTicket ticket) {
+        if (ticket == null) {
+            throw new IllegalArgumentException("Ticket cannot be null");
+        }
+        if (!ticket.isStarted()) {
+            throw new IllegalStateException("Ticket was never taken: " + ticket);
+        }
+        if (ticket.isCompleted()) {
+            return;
+        }
+        prepTime.get(ticket.getPreparedBy()).record(ticket.markCompleted());
+
+        Order order = ticket.getOrder();
+        AtomicInteger remaining = pendingTickets.get(order);
+        if (remaining != null && remaining.decrementAndGet() == 0) {
+            pendingTickets.remove(order);
+            ticketsByOrder.remove(order);
+            if ("preparing".equals(order.getOrderStatus())) { // cancelled orders stay cancelled
+                order.setOrderStatus("ready");
+            }
+        }
+    }
+
+    /**
+     * Takes the order's queued tickets off the stations (tickets already taken are
+     * left to finish). Returns true when the order was in the kitchen and none of
+     * its tickets had been taken, i.e. nothing was prepared.
+     */
+    public boolean withdraw(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        List<KitchenTicket> tickets = ticketsByOrder.remove(order);
+        if (tickets == null) {
+            return false;
+        }
+        pendingTickets.remove(order);
+        boolean untouched = true;
+        for (KitchenTicket ticket : tickets) {
+            // A station may have polled it a moment ago; then it counts as taken
+            untouched &= queues.get(ticket.getStation()).remove(ticket);
+        }
+        return untouched;
+    }
+
+    // Refuses further orders and empties the queues; returns the orders that were still in the kitchen
+    public List<Order> shutdown() {
+        shutDown = true;
+        List<Order> unfinished = new ArrayList<>(ticketsByOrder.keySet());
+        for (PriorityBlockingQueue<KitchenTicket> queue : queues.values()) {
+            queue.clear();
+        }
+        ticketsByOrder.clear();
+        pendingTickets.clear();
+        return unfinished;
+    }
+
+    // True while the order has tickets queued or being prepared here
+    public boolean isInKitchen(Order order) {
+        return order != null && ticketsByOrder.containsKey(order);
+    }
+
+    public boolean isShutDown() {
+        return shutDown;
+    }
+
+    private KitchenTicket steal(KitchenStation thief) {
+        PriorityBlockingQueue<KitchenTicket> victim = null;
+        for (Map.Entry<KitchenStation, PriorityBlockingQueue<KitchenTicket>> e : queues.entrySet()) {
+            if (e.getKey() != thief && (victim == null || e.getValue().size() > victim.size())) {
+                victim = e.getValue();
+            }
+        }
+        KitchenTicket ticket = victim != null ? victim.poll() : null;
+        if (ticket != null) {
+            stolen.get(thief).incrementAndGet();
+        }
+        return ticket;
+    }
+
+    // SECTION: Statistics
+    public int getQueueDepth(KitchenStation station) {
+        return queues.get(station).size();
+    }
+
+    public int getOrdersInKitchen() {
+        return pendingTickets.size();
+    }
+
+    public LatencyHistogram getQueueWait(KitchenStation station) {
+        return queueWait.get(station);
+    }
+
+    public LatencyHistogram getPrepTime(KitchenStation station) {
+        return prepTime.get(station);
+    }
+
+    public long getStolenCount(KitchenStation station) {
+        return stolen.get(station).get();
+    }
+
+    public String getReport() {
+        StringBuilder sb = new StringBuilder("=== KITCHEN REPORT ===\n");
+        for (KitchenStation station : KitchenStation.values()) {
+            sb.append(station).append(": queued=").append(getQueueDepth(station))
+              .append(", stolen=").append(getStolenCount(station)).append('\n');
+            sb.append("  wait  ").append(queueWait.get(station).summary()).append('\n');
+            sb.append("  prep  ").append(prepTime.get(station).summary()).append('\n');
+        }
+        return sb.toString();
+    }
+}
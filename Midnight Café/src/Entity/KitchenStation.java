@@ -0,0 +1,29 @@
+package Entity;
+
+/**
+ * KitchenStation enum - where a ticket is prepared
+ * Drinks go to the bar, everything else to the grill.
+ */
+public enum KitchenStation {
+    DRINKS_BAR("Drinks Bar"),
+    GRILL("Grill");
+    
+    private final String displayName;
+    
+    KitchenStation(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    public static KitchenStation forItem(MenuItem item) {
+        return item instanceof Drinks ? DRINKS_BAR : GRILL;
+    }
+    
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,98 @@
+package Entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * KitchenTicket class - the part of a confirmed order one station has to prepare
+ * Ordered by priority (higher first), then by dispatch sequence (older first).
+ */
+public class KitchenTicket implements Comparable<KitchenTicket> {
+    // VARIABLE LEGEND: order, station, items, priority, sequence, timestamps, preparedBy
+    private final Order order;
+    private final KitchenStation station;
+    private final List<OrderItem> items;
+    private final int priority;
+    private final long sequence;
+    private final long enqueuedNanos;
+    private volatile long startedNanos;
+    private volatile long completedNanos;
+    private volatile KitchenStation preparedBy;
+    
+    KitchenTicket(Order order, KitchenStation station, List<OrderItem> items, int priority, long sequence) {
+        this.order = order;
+        this.station = station;
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.priority = priority;
+        this.sequence = sequence;
+        this.enqueuedNanos = System.nanoTime();
+    }
+    
+    // SECTION: Getters
+    public Order getOrder() {
+        return order;
+    }
+    
+    public KitchenStation getStation() {
+        return station;
+    }
+    
+    public List<OrderItem> getItems() {
+        return items;
+    }
+    
+    public int getPriority() {
+        return priority;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public KitchenStation getPreparedBy() {
+        return preparedBy;
+    }
+    
+    public boolean isStarted() {
+        return startedNanos != 0;
+    }
+    
+    public boolean isCompleted() {
+        return completedNanos != 0;
+    }
+    
+    public boolean isStolen() {
+        return preparedBy != null && preparedBy != station;
+    }
+    
+    // SECTION: Lifecycle (driven by KitchenDispatcher)
+    long markStarted(KitchenStation by) {
+        this.preparedBy = by;
+        this.startedNanos = System.nanoTime();
+        return startedNanos - enqueuedNanos;
+    }
+    
+    long markCompleted() {
+        this.completedNanos = System.nanoTime();
+        return completedNanos - startedNanos;
+    }
+    
+    @Override
+    public int compareTo(KitchenTicket other) {
+        if (priority != other.priority) {
+            return Integer.compare(other.priority, priority);
+        }
+        return Long.compare(sequence, other.sequence);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("#").append(sequence).append(" ").append(station).append(": ");
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(items.get(i).getItemName()).append(" x").append(items.get(i).getQuantity());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package Entity;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram class - lock-free log-linear histogram of nanosecond values
+ * Each power of two is split into 32 linear sub-buckets, so any recorded value
+ * is reported within ~3% while the whole long range fits in ~1900 counters.
+ * record() is a couple of atomic increments and never blocks.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    // VARIABLE LEGEND: counts, totalCount, totalSum, maxValue
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalSum = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    // SECTION: Recording
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalSum.addAndGet(value);
+        long max;
+        while (value > (max = maxValue.get()) && !maxValue.compareAndSet(max, value)) {
+            // retry until we either win or someone recorded a larger value
+        }
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    // SECTION: Queries
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0.0 : (double) totalSum.get() / count;
+    }
+
+    // Upper bound of the bucket holding the given percentile (0-100), capped at the max seen
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        double p = Math.max(0.0, Math.min(100.0, percentile));
+        long target = Math.max(1, (long) Math.ceil(p / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueIn(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    // Adds another histogram's counts into this one (e.g. to merge per-thread or per-station data)
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalSum.addAndGet(other.totalSum.get());
+        long otherMax = other.getMax();
+        long max;
+        while (otherMax > (max = maxValue.get()) && !maxValue.compareAndSet(max, otherMax)) {
+            // retry
+        }
+    }
+
+    public String summary() {
+        return String.format("count=%d p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms",
+                getCount(),
+                getValueAtPercentile(50) / 1e6,
+                getValueAtPercentile(99) / 1e6,
+                getValueAtPercentile(99.9) / 1e6,
+                getMax() / 1e6);
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+
+    // SECTION: Bucket math
+    private static int indexOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int exponent = msb - SUB_BITS + 1;
+        int mantissa = (int) (value >>> (exponent - 1)); // in [SUB_COUNT, 2 * SUB_COUNT)
+        return exponent * SUB_COUNT + (mantissa - SUB_COUNT);
+    }
+
+    private static long highestValueIn(int index) {
+        int exponent = index / SUB_COUNT;
+        int mantissa = index % SUB_COUNT;
+        if (exponent == 0) {
+            return mantissa;
+        }
+        long lowest = (long) (SUB_COUNT + mantissa) << (exponent - 1);
+        return lowest + (1L << (exponent - 1)) - 1;
+    }
+}
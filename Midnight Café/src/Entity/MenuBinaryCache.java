@@ -0,0 +1,115 @@
+package Entity;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MenuBinaryCache class - precompiled binary copy of the menu text file
+ * data.txt stays the editable source of truth; data.bin holds the same rows in
+ * DataInput form (no splitting or number parsing) and is stamped with the size and
+ * modification time of the text file it was built from. Any edit to data.txt makes
+ * the stamp mismatch, so the next load falls back to the text parse and rebuilds it.
+ */
+public final class MenuBinaryCache {
+    private static final int MAGIC = 0x4D43_4D31; // "MCM1"
+    private static final int FORMAT_VERSION = 1;
+    private static final byte TYPE_DRINKS = 1;
+    private static final byte TYPE_FOOD = 2;
+
+    // Private constructor to prevent instantiation (utility class)
+    private MenuBinaryCache() {}
+
+    // "Data/data.txt" -> "Data/data.bin"
+    public static File cacheFileFor(String sourcePath) {
+        int dot = sourcePath.lastIndexOf('.');
+        int slash = Math.max(sourcePath.lastIndexOf('/'), sourcePath.lastIndexOf(File.separatorChar));
+        String base = dot > slash ? sourcePath.substring(0, dot) : sourcePath;
+        return new File(base + ".bin");
+    }
+
+    // SECTION: Reading
+    /**
+     * Returns the cached items, or null when there is no cache, it was built from a
+     * different version of the source file, or it cannot be read.
+     */
+    public static List<MenuItem> read(File source, File cache) {
+        if (!cache.isFile() || !source.isFile()) {
+            return null;
+        }
+        PersistenceEvent event = PersistenceEvent.start("menu.loadBinary", cache.getPath());
+        List<MenuItem> items = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cache), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            if (in.readLong() != source.length() || in.readLong() != source.lastModified()) {
+                return null; // data.txt was edited since the cache was built
+            }
+            int count = in.readInt();
+            List<MenuItem> loaded = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte type = in.readByte();
+                String name = in.readUTF();
+                double price = in.readDouble();
+                String description = in.readUTF();
+                String imagePath = in.readUTF();
+                boolean available = in.readBoolean();
+                int stock = in.readInt();
+
+                MenuItem item = type == TYPE_DRINKS
+                        ? new Drinks(name, price, description)
+                        : new Food(name, price, description);
+                item.setImagePath(imagePath);
+                item.setAvailable(available);
+                item.setStock(stock);
+                loaded.add(item);
+            }
+            items = loaded;
+            return items;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring menu cache " + cache + ": " + e.getMessage());
+            return null;
+        } finally {
+            event.finish(items != null ? items.size() : 0, cache);
+        }
+    }
+
+    // SECTION: Writing
+    // Best effort: a failed cache write only costs the next startup a text parse
+    public static void write(File source, File cache, List<MenuItem> items) {
+        if (!source.isFile()) {
+            return;
+        }
+        PersistenceEvent event = PersistenceEvent.start("menu.saveBinary", cache.getPath());
+        Path tmp = Paths.get(cache.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(source.length());
+                out.writeLong(source.lastModified());
+                out.writeInt(items.size());
+                for (MenuItem item : items) {
+                    out.writeByte(item instanceof Drinks ? TYPE_DRINKS : TYPE_FOOD);
+                    out.writeUTF(item.getName());
+                    out.writeDouble(item.getPrice());
+                    out.writeUTF(nullToEmpty(item.getDescription()));
+                    out.writeUTF(nullToEmpty(item.getImagePath()));
+                    out.writeBoolean(item.isMarkedAvailable());
+                    out.writeInt(item.getStock());
+                }
+            }
+            Files.move(tmp, cache.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing menu cache: " + e.getMessage());
+        } finally {
+            event.finish(items.size(), cache);
+        }
+    }
+
+    private static String nullToEmpty(String s) {
+        return s != null ? s : "";
+    }
+}
@@ -0,0 +1,39 @@
+package Entity;
+
+/**
+ * MenuChange class - one entry of the menu change log
+ * Consumers keep the last MenuSnapshot version they rendered and ask
+ * MenuManager.getChangesSince(version) for what to refresh.
+ */
+public final class MenuChange {
+    
+    public enum Type { ADDED, REMOVED, UPDATED }
+    
+    // VARIABLE LEGEND: version, type, itemName
+    private final long version;
+    private final Type type;
+    private final String itemName;
+    
+    public MenuChange(long version, Type type, String itemName) {
+        this.version = version;
+        this.type = type;
+        this.itemName = itemName;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public String getItemName() {
+        return itemName;
+    }
+    
+    @Override
+    public String toString() {
+        return "v" + version + " " + type + " " + itemName;
+    }
+}
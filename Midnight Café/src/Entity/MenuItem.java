@@ -1,18 +1,26 @@
 package Entity;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Abstract base class for all menu items
  * Demonstrates ABSTRACTION - defines common interface for all menu items
  */
-public abstract class MenuItem implements Serializable {
+public abstract class MenuItem implements Serializable, Cloneable {
     private static final long serialVersionUID = 1L;
-    // VARIABLE LEGEND: name, price, description, imagePath, available
+    // Bumped on every price change so cached order quotes notice repricing
+    private static final AtomicLong PRICE_EPOCH = new AtomicLong();
+    public static final int UNLIMITED_STOCK = -1;
+    // VARIABLE LEGEND: name, price, description, imagePath, available, stock
     private String name;
     private double price;
     private String description;
     private String imagePath;
     private boolean available;
+    private transient AtomicInteger stock; // UNLIMITED_STOCK when not tracked; shared by copies (see copy)
     
     // SECTION: Constructors
     public MenuItem(String name, double price) {
@@ -21,6 +29,7 @@ public abstract class MenuItem implements Serializable {
         this.description = "";
         this.imagePath = "";
         this.available = true;
+        this.stock = new AtomicInteger(UNLIMITED_STOCK);
     }
     
     public MenuItem(String name, double price, String description) {
@@ -29,6 +38,7 @@ public abstract class MenuItem implements Serializable {
         this.description = description;
         this.imagePath = "";
         this.available = true;
+        this.stock = new AtomicInteger(UNLIMITED_STOCK);
     }
     
     // SECTION: Getters (ENCAPSULATION)
@@ -48,10 +58,24 @@ public abstract class MenuItem implements Serializable {
         return imagePath;
     }
     
+    // Sold out items flip to unavailable on their own
     public boolean isAvailable() {
+        return available && stock.get() != 0;
+    }
+    
+    // The manually toggled flag only, as persisted in data.txt
+    boolean isMarkedAvailable() {
         return available;
     }
     
+    public int getStock() {
+        return stock.get();
+    }
+    
+    public boolean isStockTracked() {
+        return stock.get() != UNLIMITED_STOCK;
+    }
+    
     // SECTION: Setters (ENCAPSULATION)
     public void setName(String name) {
         if (name == null || name.trim().isEmpty()) {
@@ -65,6 +89,11 @@ public abstract class MenuItem implements Serializable {
             throw new IllegalArgumentException("Price cannot be negative");
         }
         this.price = price;
+        PRICE_EPOCH.incrementAndGet();
+    }
+    
+    public static long getPriceEpoch() {
+        return PRICE_EPOCH.get();
     }
     
     public void setDescription(String description) {
@@ -79,6 +108,63 @@ public abstract class MenuItem implements Serializable {
         this.available = available;
     }
     
+    public void setStock(int stock) {
+        if (stock < 0 && stock != UNLIMITED_STOCK) {
+            throw new IllegalArgumentException("Stock cannot be negative");
+        }
+        this.stock.set(stock);
+    }
+    
+    // SECTION: Stock reservation (lock-free, safe from any terminal thread)
+    public boolean tryReserve(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        while (true) {
+            int current = stock.get();
+            if (current == UNLIMITED_STOCK) {
+                return true;
+            }
+            if (current < quantity) {
+                return false;
+            }
+            if (stock.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+    
+    public void release(int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        while (true) {
+            int current = stock.get();
+            if (current == UNLIMITED_STOCK || stock.compareAndSet(current, current + quantity)) {
+                return;
+            }
+        }
+    }
+    
+    // SECTION: Copy-on-write (used by MenuManager)
+    /**
+     * Field-by-field copy for the next menu version; published items are never changed.
+     * The stock counter is the one thing the copy shares: it is live inventory, not
+     * part of a version, so reservations made through any version land on one count.
+     */
+    MenuItem copy() {
+        try {
+            return (MenuItem) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Menu item cannot be copied", e);
+        }
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.stock = new AtomicInteger(UNLIMITED_STOCK); // stock is owned by the live menu, not by saved orders
+    }
+    
     // SECTION: Abstract methods (POLYMORPHISM)
     public abstract String getCategory();
     public abstract double calculateDiscount(double discountPercent);
@@ -2,26 +2,30 @@ package Entity;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * MenuManager class for managing menu items
  * Demonstrates ENCAPSULATION, FILE I/O, and EXCEPTION HANDLING
+ * The menu is published as immutable, versioned MenuSnapshots (copy-on-write):
+ * readers just take the current snapshot, writers build and publish the next one.
+ * Loads prefer the binary cache next to data.txt (see MenuBinaryCache) and rebuild
+ * it whenever the text file is parsed or saved.
  */
 public class MenuManager {
-    private List<MenuItem> menuItems;
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private final AtomicReference<MenuSnapshot> current;
+    private final Object writeLock = new Object();
     private String dataFilePath;
     
     // Constructor with ENCAPSULATION
      public MenuManager() {
-        this.menuItems = new ArrayList<>();
-        this.dataFilePath = "Data/data.txt";
-        ensureDataDirectory();
-        loadMenuItems();
+        this("Data/data.txt");
     }
     
     public MenuManager(String dataFilePath) {
-        this.menuItems = new ArrayList<>();
+        this.current = new AtomicReference<>(MenuSnapshot.of(Collections.emptyList()));
         this.dataFilePath = dataFilePath;
         ensureDataDirectory();
     
@@ -29,15 +33,28 @@ public class MenuManager {
     }
     
     // Getter methods (ENCAPSULATION)
+    // Read-only view of the current snapshot; no copy is made
     public List<MenuItem> getMenuItems() {
-        return new ArrayList<>(menuItems); // Return copy to prevent external modification
+        return current.get().getItems();
     }
     
     public List<MenuItem> getAvailableItems() {
-        return menuItems.stream()
-                .filter(MenuItem::isAvailable)
-                .collect(Collectors.toList());
+        return current.get().getAvailableItems();
+    }
+    
+    public MenuSnapshot getSnapshot() {
+        return current.get();
+    }
+    
+    public long getVersion() {
+        return current.get().getVersion();
     }
+    
+    // Null means the version is too old to diff; reload from getSnapshot() instead
+    public List<MenuChange> getChangesSince(long version) {
+        return current.get().getChangesSince(version);
+    }
+    
     private void ensureDataDirectory()
     {
         File dataDir = new File("Data");
@@ -48,7 +65,7 @@ public class MenuManager {
     }
 
     public List<MenuItem> getItemsByCategory(String category) {
-        return menuItems.stream()
+        return current.get().getItems().stream()
                 .filter(item -> item.getCategory().equalsIgnoreCase(category))
                 .collect(Collectors.toList());
     }
@@ -58,47 +75,152 @@ public class MenuManager {
         if (item == null) {
             throw new IllegalArgumentException("Menu item cannot be null");
         }
-        menuItems.add(item);
-        saveMenuItems(); // Auto-save after changes
+        synchronized (writeLock) {
+            List<MenuItem> items = new ArrayList<>(current.get().getItems());
+            items.add(item);
+            publish(items, MenuChange.Type.ADDED, Collections.singletonList(item.getName()));
+            saveMenuItems(); // Auto-save after changes
+        }
     }
     
     public void removeMenuItem(String name) {
-        menuItems.removeIf(item -> item.getName().equalsIgnoreCase(name));
-        saveMenuItems();
+        synchronized (writeLock) {
+            List<MenuItem> items = new ArrayList<>(current.get().getItems());
+            List<String> removed = new ArrayList<>();
+            items.removeIf(item -> {
+                boolean match = item.getName().equalsIgnoreCase(name);
+                if (match) removed.add(item.getName());
+                return match;
+            });
+            if (!removed.isEmpty()) {
+                publish(items, MenuChange.Type.REMOVED, removed);
+            }
+            saveMenuItems();
+        }
     }
     
     public MenuItem findMenuItem(String name) {
-        return menuItems.stream()
-                .filter(item -> item.getName().equalsIgnoreCase(name))
-                .findFirst()
-                .orElse(null);
+        MenuSnapshot snapshot = current.get();
+        int index = snapshot.indexOf(name);
+        return index >= 0 ? snapshot.getItem(index) : null;
     }
     
     public void updateMenuItemPrice(String name, double newPrice) {
-        MenuItem item = findMenuItem(name);
-        if (item != null) {
-            item.setPrice(newPrice);
+        synchronized (writeLock) {
+            publishCopy(name, item -> item.setPrice(newPrice));
+            saveMenuItems();
+        }
+    }
+    
+    public void setItemAvailable(String name, boolean available) {
+        synchronized (writeLock) {
+            MenuItem item = findMenuItem(name);
+            if (item == null) {
+                throw new NoSuchElementException("Menu item not found: " + name);
+            }
+            if (item.isMarkedAvailable() != available) {
+                publishCopy(name, copy -> copy.setAvailable(available));
+                saveMenuItems();
+            }
+        }
+    }
+    
+    // The counter is shared with older versions (see MenuItem.copy); the new version
+    // records the availability that follows from it
+    public void setStock(String name, int quantity) {
+        synchronized (writeLock) {
+            publishCopy(name, item -> item.setStock(quantity));
+            saveMenuItems();
+        }
+    }
+    
+    // Called after reservations; publishes a new version only when the item sold out or came back
+    public void stockChanged(MenuItem item) {
+        MenuSnapshot snapshot = current.get();
+        int index = snapshot.indexOf(item.getName());
+        if (index < 0 || snapshot.isAvailable(index) == item.isAvailable()) {
+            return;
+        }
+        synchronized (writeLock) {
+            snapshot = current.get();
+            index = snapshot.indexOf(item.getName());
+            if (index >= 0 && snapshot.isAvailable(index) != snapshot.getItem(index).isAvailable()) {
+                publishCopy(item.getName(), copy -> { }); // nothing to change but the recorded availability
+            }
+        }
+    }
+    
+    // Bulk re-pricing (e.g. inflation update): percent change per MenuSnapshot category code
+    public void applyPriceAdjustment(double[] percentByCategory) {
+        synchronized (writeLock) {
+            MenuSnapshot s = current.get();
+            double[] newPrices = s.adjustedPrices(percentByCategory);
+            List<MenuItem> items = new ArrayList<>(s.getItems());
+            List<String> changed = new ArrayList<>();
+            for (int i = 0; i < s.size(); i++) {
+                double price = Math.round(newPrices[i] * 100.0) / 100.0;
+                if (price != s.getPrice(i)) {
+                    MenuItem copy = s.getItem(i).copy();
+                    copy.setPrice(price);
+                    items.set(i, copy);
+                    changed.add(copy.getName());
+                }
+            }
+            if (!changed.isEmpty()) {
+                publish(items, MenuChange.Type.UPDATED, changed);
+            }
             saveMenuItems();
-        } else {
+        }
+    }
+    
+    // SECTION: Snapshot publishing (callers hold writeLock)
+    private void publish(List<MenuItem> items, MenuChange.Type type, List<String> names) {
+        MenuSnapshot previous = current.get();
+        List<MenuChange> changes = new ArrayList<>(names.size());
+        for (String n : names) {
+            changes.add(new MenuChange(previous.getVersion() + 1, type, n));
+        }
+        current.set(previous.next(items, changes));
+    }
+    
+    // Copy-on-write: the change is made to a copy, which replaces the item in a new list,
+    // so readers holding an older snapshot keep seeing that version's items
+    private void publishCopy(String name, java.util.function.Consumer<MenuItem> change) {
+        MenuSnapshot s = current.get();
+        int index = s.indexOf(name);
+        if (index < 0) {
             throw new NoSuchElementException("Menu item not found: " + name);
         }
+        MenuItem copy = s.getItem(index).copy();
+        change.accept(copy); // validation errors leave the published menu untouched
+        List<MenuItem> items = new ArrayList<>(s.getItems());
+        items.set(index, copy);
+        publish(items, MenuChange.Type.UPDATED, Collections.singletonList(copy.getName()));
     }
     
     // FILE I/O methods with EXCEPTION HANDLING
     public void saveMenuItems() {
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.start("menu.save", dataFilePath);
+        List<MenuItem> items = current.get().getItems();
         try (PrintWriter writer = new PrintWriter(new FileWriter(dataFilePath))) {
-            for (MenuItem item : menuItems) {
+            for (MenuItem item : items) {
                 writer.println(item.getClass().getSimpleName() + "|" + 
                               item.getName() + "|" + 
                               item.getPrice() + "|" + 
                               item.getDescription() + "|" + 
                               item.getImagePath() + "|" + 
-                              item.isAvailable());
+                              item.isMarkedAvailable() + "|" + 
+                              item.getStock());
             }
         } catch (IOException e) {
             System.err.println("Error saving menu items: " + e.getMessage());
             throw new RuntimeException("Failed to save menu data", e);
+        } finally {
+            METRICS.recordTime("menu.save", start);
+            event.finish(items.size(), new File(dataFilePath));
         }
+        MenuBinaryCache.write(new File(dataFilePath), MenuBinaryCache.cacheFileFor(dataFilePath), items);
     }
     
     public void loadMenuItems() {
@@ -108,6 +230,17 @@ public class MenuManager {
             return;
         }
         
+        File cacheFile = MenuBinaryCache.cacheFileFor(dataFilePath);
+        List<MenuItem> cached = MenuBinaryCache.read(dataFile, cacheFile);
+        if (cached != null) {
+            synchronized (writeLock) {
+                current.set(current.get().reset(cached));
+            }
+            return;
+        }
+        
+        List<MenuItem> menuItems = new ArrayList<>();
+        PersistenceEvent event = PersistenceEvent.start("menu.load", dataFilePath);
         try (BufferedReader reader = new BufferedReader(new FileReader(dataFile))) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -131,21 +264,30 @@ public class MenuManager {
                     
                     item.setImagePath(imagePath);
                     item.setAvailable(available);
+                    if (parts.length >= 7) {
+                        item.setStock(Integer.parseInt(parts[6].trim()));
+                    }
                     menuItems.add(item);
                 }
             }
+            synchronized (writeLock) {
+                current.set(current.get().reset(menuItems));
+            }
+            MenuBinaryCache.write(dataFile, cacheFile, menuItems);
         } catch (IOException e) {
             System.err.println("Error loading menu items: " + e.getMessage());
             initializeDefaultMenu(); // Fallback to default menu
         } catch (NumberFormatException e) {
             System.err.println("Error parsing menu data: " + e.getMessage());
             initializeDefaultMenu();
+        } finally {
+            event.finish(menuItems.size(), dataFile);
         }
     }
     
     private void initializeDefaultMenu() {
         
-        menuItems.clear();
+        List<MenuItem> menuItems = new ArrayList<>();
         
         // Drinks
         menuItems.add(new Drinks("Coffee", 50.0, "Freshly brewed coffee"));
@@ -176,14 +318,17 @@ public class MenuManager {
         menuItems.add(new Food("Pizza", 300.0, "Delicious pizza"));
         menuItems.add(new Food("Waffle", 150.0, "Sweet waffle"));
         
-        saveMenuItems();
+        synchronized (writeLock) {
+            current.set(current.get().reset(menuItems));
+            saveMenuItems();
+        }
     }
     
     public int getTotalItems() {
-        return menuItems.size();
+        return current.get().size();
     }
     
     public int getAvailableItemsCount() {
-        return (int) menuItems.stream().filter(MenuItem::isAvailable).count();
+        return current.get().availableCount();
     }
 }
@@ -0,0 +1,199 @@
+package Entity;
+
+import java.util.*;
+
+/**
+ * MenuSearchIndex class - as-you-type search over the menu
+ * Every word of an item name goes into a prefix trie whose nodes carry the items below
+ * them, so "bo" -> "Matcha Boba Tea" is one walk of two characters. Description words
+ * go into a sorted inverted index (word -> items) where a prefix is a sub-map range.
+ * A query matches an item when each query word is a prefix of a name word or of a
+ * description word; items matched on the name alone rank first, then menu order.
+ *
+ * The index follows MenuManager through getChangesSince: sync() applies only what
+ * changed since the version it last saw, and rebuilds only when that log is gone.
+ */
+public class MenuSearchIndex {
+
+    // VARIABLE LEGEND: nameRoot (trie over name words), descriptionIndex (word -> item keys),
+    // items (lower-case name -> item), version (last MenuSnapshot version applied)
+    private final TrieNode nameRoot = new TrieNode();
+    private final NavigableMap<String, Set<String>> descriptionIndex = new TreeMap<>();
+    private final Map<String, MenuItem> items = new HashMap<>();
+    private MenuSnapshot snapshot = MenuSnapshot.of(Collections.emptyList());
+    private long version = -1;
+
+    private static final class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>(4);
+        final Set<String> keys = new HashSet<>(4); // items with a name word through this node
+    }
+
+    // SECTION: Keeping up with the menu
+    /**
+     * Brings the index up to the menu's current version. Returns true when anything
+     * changed, so callers know to refresh what they show.
+     */
+    public synchronized boolean sync(MenuManager menu) {
+        if (menu == null) {
+            throw new IllegalArgumentException("Menu manager cannot be null");
+        }
+        MenuSnapshot latest = menu.getSnapshot();
+        if (latest == snapshot) {
+            return false;
+        }
+        List<MenuChange> changes = version >= 0 ? latest.getChangesSince(version) : null;
+        if (changes == null) {
+            rebuild(latest);
+        } else {
+            for (MenuChange change : changes) {
+                String key = change.getItemName().toLowerCase();
+                remove(key);
+                if (change.getType() != MenuChange.Type.REMOVED) {
+                    int index = latest.indexOf(change.getItemName());
+                    if (index >= 0) {
+                        add(latest.getItem(index));
+                    }
+                }
+            }
+        }
+        snapshot = latest;
+        version = latest.getVersion();
+        return true;
+    }
+
+    private void rebuild(MenuSnapshot latest) {
+        nameRoot.children.clear();
+        nameRoot.keys.clear();
+        descriptionIndex.clear();
+        items.clear();
+        for (MenuItem item : latest.getItems()) {
+            add(item);
+        }
+    }
+
+    private void add(MenuItem item) {
+        String key = item.getName().toLowerCase();
+        items.put(key, item);
+        nameRoot.keys.add(key);
+        for (String word : words(item.getName())) {
+            TrieNode node = nameRoot;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new TrieNode());
+                node.keys.add(key);
+            }
+        }
+        for (String word : words(item.getDescription())) {
+            descriptionIndex.computeIfAbsent(word, w -> new HashSet<>()).add(key);
+        }
+    }
+
+    private void remove(String key) {
+        MenuItem item = items.remove(key);
+        if (item == null) {
+            return;
+        }
+        nameRoot.keys.remove(key);
+        for (String word : words(item.getName())) {
+            removeFromTrie(nameRoot, word, 0, key);
+        }
+        for (String word : words(item.getDescription())) {
+            Set<String> postings = descriptionIndex.get(word);
+            if (postings != null && postings.remove(key) && postings.isEmpty()) {
+                descriptionIndex.remove(word);
+            }
+        }
+    }
+
+    // Drops the key along the word's path and prunes nodes nobody uses any more
+    private static void removeFromTrie(TrieNode node, String word, int depth, String key) {
+        if (depth == word.length()) {
+            return;
+        }
+        TrieNode child = node.children.get(word.charAt(depth));
+        if (child == null) {
+            return;
+        }
+        removeFromTrie(child, word, depth + 1, key);
+        child.keys.remove(key);
+        if (child.keys.isEmpty()) {
+            node.children.remove(word.charAt(depth));
+        }
+    }
+
+    // SECTION: Queries
+    /**
+     * Items matching every word of the query, best first. A blank query returns the
+     * whole menu in menu order.
+     */
+    public synchronized List<MenuItem> search(String query) {
+        List<String> terms = words(query);
+        if (terms.isEmpty()) {
+            return snapshot.getItems();
+        }
+        Set<String> byName = null;
+        Set<String> matched = null;
+        for (String term : terms) {
+            Set<String> nameHits = nameMatches(term);
+            Set<String> hits = new HashSet<>(nameHits);
+            for (Set<String> postings : descriptionIndex.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                hits.addAll(postings);
+            }
+            byName = byName == null ? new HashSet<>(nameHits) : retain(byName, nameHits);
+            matched = matched == null ? hits : retain(matched, hits);
+            if (matched.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<MenuItem> nameFirst = new ArrayList<>(matched.size());
+        List<MenuItem> rest = new ArrayList<>();
+        for (String key : matched) {
+            (byName.contains(key) ? nameFirst : rest).add(items.get(key));
+        }
+        Comparator<MenuItem> menuOrder = Comparator.comparingInt(item -> snapshot.indexOf(item.getName()));
+        nameFirst.sort(menuOrder);
+        rest.sort(menuOrder);
+        nameFirst.addAll(rest);
+        return nameFirst;
+    }
+
+    private Set<String> nameMatches(String prefix) {
+        TrieNode node = nameRoot;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node != null ? node.keys : Collections.emptySet();
+    }
+
+    private static Set<String> retain(Set<String> into, Set<String> other) {
+        into.retainAll(other);
+        return into;
+    }
+
+    public synchronized int size() {
+        return items.size();
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    // Lower-case words split on anything that is not a letter or digit
+    private static List<String> words(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) {
+            return out;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                out.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return out;
+    }
+}
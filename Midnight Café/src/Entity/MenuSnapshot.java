@@ -0,0 +1,225 @@
+package Entity;
+
+import java.util.*;
+
+/**
+ * MenuSnapshot class - immutable struct-of-arrays view of the menu
+ * Prices, category codes and availability live in primitive arrays so bulk
+ * operations (happy hour, inflation updates, pricing many orders) are plain
+ * index loops instead of one virtual calculateDiscount call per item.
+ * MenuManager publishes a new snapshot per write; readers never copy or lock.
+ */
+public final class MenuSnapshot {
+    public static final byte CATEGORY_FOOD = 0;
+    public static final byte CATEGORY_DRINKS = 1;
+    public static final byte CATEGORY_OTHER = 2;
+    public static final int CATEGORY_COUNT = 3;
+    static final int MAX_CHANGE_LOG = 256;
+
+    // VARIABLE LEGEND: version, items, prices, discountFactors, categories, available, indexByName, recentChanges
+    private final long version;
+    private final MenuItem[] items;
+    private final double[] prices;
+    private final double[] discountFactors; // calculateDiscount(p) == price * factor * p / 100
+    private final byte[] categories;
+    private final boolean[] available;
+    private final Map<String, Integer> indexByName;
+    private final List<MenuItem> itemList;
+    private final List<MenuItem> availableItems;
+    private final List<MenuChange> recentChanges; // oldest first, whole versions, capped at MAX_CHANGE_LOG
+
+    // SECTION: Construction
+    private MenuSnapshot(long version, List<MenuItem> source, List<MenuChange> recentChanges) {
+        int n = source.size();
+        this.version = version;
+        this.items = source.toArray(new MenuItem[0]);
+        this.prices = new double[n];
+        this.discountFactors = new double[n];
+        this.categories = new byte[n];
+        this.available = new boolean[n];
+        this.indexByName = new HashMap<>(n * 2);
+
+        for (int i = 0; i < n; i++) {
+            MenuItem item = items[i];
+            double price = item.getPrice();
+            prices[i] = price;
+            // Both overrides are linear in the percent, so sample them once per snapshot
+            discountFactors[i] = price > 0 ? item.calculateDiscount(100.0) / price : 0.0;
+            categories[i] = categoryCode(item.getCategory());
+            available[i] = item.isAvailable();
+            indexByName.putIfAbsent(item.getName().toLowerCase(), i);
+        }
+
+        List<MenuItem> availableList = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (available[i]) availableList.add(items[i]);
+        }
+        this.itemList = Collections.unmodifiableList(Arrays.asList(items));
+        this.availableItems = Collections.unmodifiableList(availableList);
+        this.recentChanges = Collections.unmodifiableList(recentChanges);
+    }
+
+    public static MenuSnapshot of(List<MenuItem> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Menu items cannot be null");
+        }
+        return new MenuSnapshot(0, items, Collections.emptyList());
+    }
+
+    // Next version of this snapshot; the change log is carried over and capped.
+    // Only whole versions are dropped, so a version in the log always has all its changes;
+    // a single version bigger than the cap empties the log and readers reload fully.
+    MenuSnapshot next(List<MenuItem> items, List<MenuChange> changes) {
+        List<MenuChange> log = new ArrayList<>(recentChanges);
+        log.addAll(changes);
+        if (log.size() > MAX_CHANGE_LOG) {
+            int from = log.size() - MAX_CHANGE_LOG;
+            while (from < log.size() && log.get(from).getVersion() == log.get(from - 1).getVersion()) {
+                from++;
+            }
+            log = new ArrayList<>(log.subList(from, log.size()));
+        }
+        return new MenuSnapshot(version + 1, items, log);
+    }
+
+    // Next version after a full reload; older versions can no longer be diffed
+    MenuSnapshot reset(List<MenuItem> items) {
+        return new MenuSnapshot(version + 1, items, Collections.emptyList());
+    }
+
+    public static byte categoryCode(String category) {
+        if ("Food".equalsIgnoreCase(category)) return CATEGORY_FOOD;
+        if ("Drinks".equalsIgnoreCase(category)) return CATEGORY_DRINKS;
+        return CATEGORY_OTHER;
+    }
+
+    // SECTION: Accessors
+    public long getVersion() {
+        return version;
+    }
+
+    public List<MenuItem> getItems() {
+        return itemList;
+    }
+
+    public List<MenuItem> getAvailableItems() {
+        return availableItems;
+    }
+
+    /**
+     * Changes published after the given version, oldest first. Returns null when
+     * the version is older than the retained log and the caller must reload fully.
+     */
+    public List<MenuChange> getChangesSince(long sinceVersion) {
+        if (sinceVersion >= version) {
+            return Collections.emptyList();
+        }
+        if (recentChanges.isEmpty() || recentChanges.get(0).getVersion() > sinceVersion + 1) {
+            return null;
+        }
+        int from = recentChanges.size();
+        while (from > 0 && recentChanges.get(from - 1).getVersion() > sinceVersion) {
+            from--;
+        }
+        return recentChanges.subList(from, recentChanges.size());
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    public MenuItem getItem(int index) {
+        return items[index];
+    }
+
+    public double getPrice(int index) {
+        return prices[index];
+    }
+
+    public byte getCategory(int index) {
+        return categories[index];
+    }
+
+    public boolean isAvailable(int index) {
+        return available[index];
+    }
+
+    // Returns -1 when the name is not on the menu
+    public int indexOf(String name) {
+        Integer index = name != null ? indexByName.get(name.toLowerCase()) : null;
+        return index != null ? index : -1;
+    }
+
+    public double[] copyPrices() {
+        return prices.clone();
+    }
+
+    // SECTION: Bulk operations
+    // Same result as calling item.calculateDiscount(discountPercent) for every item
+    public double[] discountAmounts(double discountPercent) {
+        double[] out = new double[prices.length];
+        double rate = discountPercent / 100.0;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = prices[i] * discountFactors[i] * rate;
+        }
+        return out;
+    }
+
+    // Per-category happy hour; percentByCategory is indexed by the CATEGORY_* codes
+    public double[] discountAmounts(double[] percentByCategory) {
+        double[] rates = categoryRates(percentByCategory);
+        double[] out = new double[prices.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = prices[i] * discountFactors[i] * rates[categories[i]];
+        }
+        return out;
+    }
+
+    // Inflation style update: new price = price * (1 + percent / 100) for the given categories
+    public double[] adjustedPrices(double[] percentByCategory) {
+        double[] rates = categoryRates(percentByCategory);
+        double[] out = new double[prices.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = prices[i] * (1.0 + rates[categories[i]]);
+        }
+        return out;
+    }
+
+    /**
+     * Subtotals for many orders at once, in compressed row form: order k owns
+     * itemIndexes/quantities[offsets[k] .. offsets[k + 1]).
+     */
+    public double[] orderSubtotals(int[] offsets, int[] itemIndexes, int[] quantities) {
+        if (offsets == null || itemIndexes == null || quantities == null) {
+            throw new IllegalArgumentException("Order arrays cannot be null");
+        }
+        if (itemIndexes.length != quantities.length) {
+            throw new IllegalArgumentException("Item and quantity arrays must have the same length");
+        }
+        int orders = Math.max(0, offsets.length - 1);
+        double[] totals = new double[orders];
+        for (int k = 0; k < orders; k++) {
+            double sum = 0.0;
+            for (int j = offsets[k]; j < offsets[k + 1]; j++) {
+                sum += prices[itemIndexes[j]] * quantities[j];
+            }
+            totals[k] = sum;
+        }
+        return totals;
+    }
+
+    public int availableCount() {
+        return availableItems.size();
+    }
+
+    private static double[] categoryRates(double[] percentByCategory) {
+        if (percentByCategory == null || percentByCategory.length < CATEGORY_COUNT) {
+            throw new IllegalArgumentException("Need one percent per category");
+        }
+        double[] rates = new double[CATEGORY_COUNT];
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            rates[c] = percentByCategory[c] / 100.0;
+        }
+        return rates;
+    }
+}
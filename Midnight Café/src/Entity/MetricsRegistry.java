@@ -0,0 +1,148 @@
+package Entity;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * MetricsRegistry class - in-process counters and latency histograms
+ * Recording is lock-free (LongAdder / LatencyHistogram). Values can be read
+ * over JMX or written periodically as a JSON snapshot file.
+ */
+public class MetricsRegistry implements MetricsRegistryMXBean {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p99", "p999"};
+
+    // VARIABLE LEGEND: counters, timers, reporter
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    // SECTION: Recording
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    public void add(String name, long delta) {
+        counters.computeIfAbsent(name, n -> new LongAdder()).add(delta);
+    }
+
+    public LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    // Typical use: long start = System.nanoTime(); try { ... } finally { recordTime("op", start); }
+    public void recordTime(String name, long startNanos) {
+        timer(name).recordSince(startNanos);
+    }
+
+    // SECTION: MXBean views
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> out = new TreeMap<>();
+        counters.forEach((name, adder) -> out.put(name, adder.sum()));
+        return out;
+    }
+
+    @Override
+    public Map<String, Long> getLatencyPercentiles() {
+        Map<String, Long> out = new TreeMap<>();
+        timers.forEach((name, h) -> {
+            out.put(name + ".count", h.getCount());
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                out.put(name + "." + PERCENTILE_NAMES[i], h.getValueAtPercentile(PERCENTILES[i]) / 1000);
+            }
+            out.put(name + ".max", h.getMax() / 1000);
+        });
+        return out;
+    }
+
+    @Override
+    public String getSnapshotJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n  \"timestamp\": \"").append(java.time.LocalDateTime.now()).append("\",\n");
+        sb.append("  \"counters\": {");
+        appendEntries(sb, getCounters(), (out, value) -> out.append(value));
+        sb.append("},\n  \"latencyMicros\": {");
+        appendEntries(sb, new TreeMap<>(timers), (out, h) -> {
+            out.append("{\"count\": ").append(h.getCount())
+               .append(", \"mean\": ").append(Math.round(h.getMean() / 1000));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                out.append(", \"").append(PERCENTILE_NAMES[i]).append("\": ")
+                   .append(h.getValueAtPercentile(PERCENTILES[i]) / 1000);
+            }
+            out.append(", \"max\": ").append(h.getMax() / 1000).append('}');
+        });
+        sb.append("}\n}\n");
+        return sb.toString();
+    }
+
+    private static <V> void appendEntries(StringBuilder sb, Map<String, V> entries,
+                                          java.util.function.BiConsumer<StringBuilder, V> valueWriter) {
+        boolean first = true;
+        for (Map.Entry<String, V> e : entries.entrySet()) {
+            sb.append(first ? "\n    \"" : ",\n    \"").append(e.getKey().replace("\"", "'")).append("\": ");
+            valueWriter.accept(sb, e.getValue());
+            first = false;
+        }
+        if (!first) {
+            sb.append("\n  ");
+        }
+    }
+
+    // SECTION: Exposure
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("Entity:type=MetricsRegistry");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Error registering metrics MBean: " + e.getMessage());
+        }
+    }
+
+    public void writeSnapshot(String path) {
+        Path target = Paths.get(path);
+        Path tmp = Paths.get(path + ".tmp");
+        try {
+            Files.write(tmp, getSnapshotJson().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing metrics snapshot: " + e.getMessage());
+        }
+    }
+
+    public synchronized void startReporting(String path, long periodSeconds) {
+        if (periodSeconds <= 0) {
+            throw new IllegalArgumentException("Reporting period must be positive");
+        }
+        stopReporting();
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(() -> writeSnapshot(path), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package Entity;
+
+import java.util.Map;
+
+/**
+ * MetricsRegistryMXBean interface - JMX view of MetricsRegistry
+ * Percentiles are exposed in microseconds, keyed as "operation.p50" etc.
+ */
+public interface MetricsRegistryMXBean {
+    
+    Map<String, Long> getCounters();
+    
+    Map<String, Long> getLatencyPercentiles();
+    
+    String getSnapshotJson();
+}
@@ -1,11 +1,14 @@
 package Entity;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Order class - represents a customer's order
@@ -16,12 +19,17 @@ public class Order implements Serializable {
     
     private final Map<String, OrderItem> items = new LinkedHashMap<>();
     private final List<String> history = new ArrayList<>();
+    private long orderId; // assigned by OrderServiceImpl, 0 until then
+    private String branchId; // outlet that took the order; null for orders from before branches
     private Customer customer;
     private LocalDateTime orderDate;
     private String orderStatus; // pending, confirmed, preparing, ready, completed, cancelled
     private double discountPercent;
-    private boolean discountLocked; // apply only after confirm
+    private boolean discountLocked; // pricing is frozen once the order is confirmed
     private String specialInstructions;
+    private PriceQuote quote; // last PricingEngine result; kept with the order once locked
+    private transient long version; // bumped on every change that affects pricing
+    private transient ReentrantLock lock = new ReentrantLock(); // see getLock
     
     // Constructor with ENCAPSULATION
     public Order() {
@@ -39,6 +47,28 @@ public class Order implements Serializable {
     }
     
     // Getter methods (ENCAPSULATION)
+    public long getOrderId() {
+        return orderId;
+    }
+    
+    void setOrderId(long orderId) {
+        this.orderId = orderId;
+    }
+    
+    // For callers that change one order from several threads (API clients); unlike a
+    // monitor it does not pin a virtual thread while the journal forces to disk
+    public ReentrantLock getLock() {
+        return lock;
+    }
+    
+    public String getBranchId() {
+        return branchId;
+    }
+    
+    void setBranchId(String branchId) {
+        this.branchId = branchId;
+    }
+    
     public Customer getCustomer() {
         return customer;
     }
@@ -47,6 +77,11 @@ public class Order implements Serializable {
         return orderDate;
     }
     
+    // Used by OrderJournal replay so recovered orders keep their original time
+    void setOrderDate(LocalDateTime orderDate) {
+        this.orderDate = orderDate;
+    }
+    
     public String getOrderStatus() {
         return orderStatus;
     }
@@ -62,9 +97,14 @@ public class Order implements Serializable {
         return specialInstructions;
     }
     
+    public long getVersion() {
+        return version;
+    }
+    
     // Setter methods with validation (ENCAPSULATION)
     public void setCustomer(Customer customer) {
         this.customer = customer;
+        version++;
     }
     
     public void setOrderStatus(String orderStatus) {
@@ -79,10 +119,16 @@ public class Order implements Serializable {
             throw new IllegalArgumentException("Discount percent must be between 0 and 100");
         }
         // Only allow setting discount before confirmation lock
+        if (discountLocked) {
+            throw new IllegalStateException("Discount cannot be changed after confirmation");
+        }
         this.discountPercent = discountPercent;
+        version++;
     }
 
+    // Prices the order one last time and freezes that quote
     public void lockDiscount() {
+        this.quote = PricingEngine.getDefault().price(this);
         this.discountLocked = true;
     }
     
@@ -99,12 +145,20 @@ public class Order implements Serializable {
         if (item == null) {
             throw new IllegalArgumentException("Menu item cannot be null");
         }
-        if (quantity <= 0) {
-            throw new IllegalArgumentException("Quantity must be positive");
-        }
         if (!item.isAvailable()) {
             throw new IllegalStateException("Item is not available: " + item.getName());
         }
+        addReservedItem(item, quantity);
+    }
+
+    // Used by OrderServiceImpl once stock is reserved; the last unit may leave the item sold out
+    void addReservedItem(MenuItem item, int quantity) {
+        if (item == null) {
+            throw new IllegalArgumentException("Menu item cannot be null");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
         
         OrderItem existing = items.get(item.getName());
         if (existing == null) {
@@ -115,28 +169,39 @@ public class Order implements Serializable {
         for (int i = 0; i < quantity; i++) {
             history.add(item.getName());
         }
+        version++;
     }
 
     public boolean removeLastUnit() {
-        if (history.isEmpty()) return false;
+        return removeLastUnitItem() != null;
+    }
+
+    // Removes the most recently added unit and returns its menu item, or null if empty
+    public MenuItem removeLastUnitItem() {
+        if (history.isEmpty()) return null;
         String last = history.remove(history.size() - 1);
+        version++;
         OrderItem oi = items.get(last);
-        if (oi != null) {
-            int q = oi.getQuantity() - 1;
-            if (q <= 0) {
-                items.remove(last);
-            } else {
-                oi.setQuantity(q);
-            }
+        if (oi == null) return null;
+        int q = oi.getQuantity() - 1;
+        if (q <= 0) {
+            items.remove(last);
+        } else {
+            oi.setQuantity(q);
         }
-        return true;
+        return oi.getItem();
     }
 
     public void clear() {
+        // Same lock as setDiscountPercent: a confirmed order keeps its items and discount
+        if (discountLocked) {
+            throw new IllegalStateException("Order cannot be cleared after confirmation");
+        }
         items.clear();
         history.clear();
         discountPercent = 0.0;
         specialInstructions = "";
+        version++;
     }
 
     public List<OrderItem> getItems() {
@@ -155,15 +220,27 @@ public class Order implements Serializable {
         return sum;
     }
     
+    // Priced once per change; confirmed orders keep the quote they were confirmed with
+    public PriceQuote getQuote() {
+        PriceQuote q = quote;
+        if (q != null && discountLocked) {
+            return q;
+        }
+        PricingEngine engine = PricingEngine.getDefault();
+        double customerRate = customer != null ? customer.getDiscountRate() : 0.0;
+        if (q == null || !q.isCurrent(version, engine.getRuleSetVersion(), MenuItem.getPriceEpoch(), customerRate)) {
+            q = engine.price(this);
+            quote = q;
+        }
+        return q;
+    }
+    
     public double getDiscountAmount() {
-        double subtotal = getSubtotal();
-        double tierDisc = (customer != null) ? subtotal * customer.getDiscountRate() : 0.0;
-        double manualDisc = discountLocked ? subtotal * (discountPercent / 100) : 0.0; // only after confirm
-        return Math.max(tierDisc, manualDisc);
+        return getQuote().getDiscountTotal();
     }
 
     public double getTotalPrice() {
-        return getSubtotal() - getDiscountAmount();
+        return getQuote().getTotal();
     }
     
     public int getTotalItems() {
@@ -172,8 +249,9 @@ public class Order implements Serializable {
 
     public String getBill() {
         StringBuilder bill = new StringBuilder();
-        bill.append("---Aninda Dhaba---\n");
-        bill.append("---Dhanmondi, Dhaka---\n");
+        Branch branch = BranchRegistry.getActive().resolve(branchId);
+        bill.append("---").append(branch.getName()).append("---\n");
+        bill.append("---").append(branch.getAddress()).append("---\n");
         bill.append("Date: ").append(orderDate.toLocalDate()).append("\n");
         bill.append("Time: ").append(orderDate.toLocalTime()).append("\n");
         bill.append("Status: ").append(orderStatus).append("\n");
@@ -201,13 +279,14 @@ public class Order implements Serializable {
         }
         
         bill.append("=====================\n");
-        bill.append("Subtotal: ").append(String.format("%.2f", getSubtotal())).append("৳\n");
+        PriceQuote q = getQuote();
+        bill.append("Subtotal: ").append(String.format("%.2f", q.getSubtotal())).append("৳\n");
         
-        if (getDiscountAmount() > 0) {
-            bill.append("Discount: -").append(String.format("%.2f", getDiscountAmount())).append("৳\n");
+        for (PriceQuote.Adjustment a : q.getAdjustments()) {
+            bill.append(a.getLabel()).append(": -").append(String.format("%.2f", a.getAmount())).append("৳\n");
         }
         
-        bill.append("Total: ").append(String.format("%.2f", getTotalPrice())).append("৳\n");
+        bill.append("Total: ").append(String.format("%.2f", q.getTotal())).append("৳\n");
         
         if (!specialInstructions.isEmpty()) {
             bill.append("Special Instructions: ").append(specialInstructions).append("\n");
@@ -216,6 +295,13 @@ public class Order implements Serializable {
         return bill.toString();
     }
     
+    // Journal replay: status and quote as they were confirmed; the customer's totals were counted back then
+    void restoreConfirmed(PriceQuote confirmedQuote) {
+        setOrderStatus("confirmed");
+        this.quote = confirmedQuote;
+        this.discountLocked = true;
+    }
+    
     public void confirmOrder() {
         if (isEmpty()) {
             throw new IllegalStateException("Cannot confirm empty order");
@@ -231,6 +317,16 @@ public class Order implements Serializable {
         setOrderStatus("cancelled");
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        lock = new ReentrantLock();
+    }
+
+    // Units stay reserved against menu stock until the order is cancelled
+    boolean holdsStock() {
+        return !"cancelled".equals(orderStatus);
+    }
+
     // Helper to format attribute details per item for receipts
     private String formatItemDetails(MenuItem item) {
         try {
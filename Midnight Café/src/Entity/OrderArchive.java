@@ -0,0 +1,339 @@
+package Entity;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * OrderArchive class - compressed cold tier for closed months of order partitions
+ * One file per month (orders-YYYY-MM.arc). Every day is its own Deflater block, and a
+ * block index at the end of the file records each day's offset, sizes and partition
+ * header. Reading a day seeks straight to its block and inflates only that block, one
+ * order at a time; header-only questions (revenue, counts) never inflate anything.
+ *
+ * Layout: int magic | int version | blocks... | int count | entries... | long indexOffset | int magic
+ */
+public class OrderArchive {
+    private static final int MAGIC = 0x4F_41_52_43; // "OARC"
+    private static final int FORMAT_VERSION = 1;
+    private static final String PREFIX = "orders-";
+    private static final String SUFFIX = ".arc";
+    private static final int FOOTER_BYTES = 8 + 4;
+
+    // VARIABLE LEGEND: dir, blocks (by day, loaded lazily from the file indexes), writeLock, swapLock
+    private final File dir;
+    private volatile NavigableMap<LocalDate, Block> blocks;
+    private final Object writeLock = new Object();
+    // Shared while a reader looks up a block and opens its file; exclusive while a month file
+    // and its blocks are replaced, so an offset is never read from the wrong version of the file
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    public OrderArchive(String dir) {
+        if (dir == null || dir.trim().isEmpty()) {
+            throw new IllegalArgumentException("Archive directory cannot be null or empty");
+        }
+        this.dir = new File(dir);
+    }
+
+    // Where one day lives inside a month file
+    private static final class Block {
+        final File file;
+        final long offset;
+        final long compressedBytes;
+        final long rawBytes;
+        final OrderPartitionStore.PartitionHeader header;
+
+        Block(File file, long offset, long compressedBytes, long rawBytes, OrderPartitionStore.PartitionHeader header) {
+            this.file = file;
+            this.offset = offset;
+            this.compressedBytes = compressedBytes;
+            this.rawBytes = rawBytes;
+            this.header = header;
+        }
+    }
+
+    // SECTION: Writing
+    /**
+     * Writes (or replaces) the archive for one month. Every day in the map becomes a
+     * block; the caller deletes the live partitions only after this returns.
+     */
+    void writeMonth(YearMonth month, NavigableMap<LocalDate, List<Order>> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        File target = fileFor(month);
+        File tmp = new File(target.getPath() + ".tmp");
+        PersistenceEvent event = PersistenceEvent.start("orders.archiveMonth", target.getPath());
+        List<Block> written = new ArrayList<>(days.size());
+        int orderCount = 0;
+        synchronized (writeLock) {
+            index();
+            try {
+                if (!dir.exists()) {
+                    dir.mkdirs();
+                }
+                try (FileOutputStream fos = new FileOutputStream(tmp);
+                     CountingOutput file = new CountingOutput(new BufferedOutputStream(fos, 1 << 16))) {
+                    DataOutputStream data = new DataOutputStream(file);
+                    data.writeInt(MAGIC);
+                    data.writeInt(FORMAT_VERSION);
+                    for (Map.Entry<LocalDate, List<Order>> e : days.entrySet()) {
+                        long offset = file.count;
+                        long raw = writeBlock(file, e.getValue());
+                        written.add(new Block(target, offset, file.count - offset, raw,
+                                OrderPartitionStore.headerFor(e.getKey(), e.getValue())));
+                        orderCount += e.getValue().size();
+                    }
+                    long indexOffset = file.count;
+                    data.writeInt(written.size());
+                    for (Block b : written) {
+                        writeEntry(data, b);
+                    }
+                    data.writeLong(indexOffset);
+                    data.writeInt(MAGIC);
+                    data.flush();
+                    fos.getFD().sync();
+                }
+                swapLock.writeLock().lock();
+                try {
+                    Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    LocalDate first = month.atDay(1);
+                    blocks.subMap(first, true, month.atEndOfMonth(), true).clear();
+                    for (Block b : written) {
+                        blocks.put(b.header.getDay(), b);
+                    }
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            } catch (IOException e) {
+                System.err.println("Error writing order archive " + month + ": " + e.getMessage());
+                throw new RuntimeException("Failed to write order archive", e);
+            } finally {
+                event.finish(orderCount, target);
+            }
+        }
+    }
+
+    // One self-contained deflate stream per day; returns the uncompressed size
+    private static long writeBlock(OutputStream file, List<Order> orders) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(new NonClosing(file), deflater, 1 << 14);
+            CountingOutput raw = new CountingOutput(deflated);
+            ObjectOutputStream oos = new ObjectOutputStream(raw);
+            oos.writeInt(orders.size());
+            for (Order order : orders) {
+                oos.writeObject(order);
+            }
+            oos.flush();
+            deflated.finish();
+            return raw.count;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, Block b) throws IOException {
+        OrderPartitionStore.PartitionHeader h = b.header;
+        out.writeLong(h.getDay().toEpochDay());
+        out.writeLong(b.offset);
+        out.writeLong(b.compressedBytes);
+        out.writeLong(b.rawBytes);
+        out.writeLong(h.getMinTimestamp());
+        out.writeLong(h.getMaxTimestamp());
+        out.writeInt(h.getOrderCount());
+        out.writeInt(h.getSoldCount());
+        out.writeDouble(h.getRevenue());
+        out.writeLong(h.getMaxOrderId());
+    }
+
+    // SECTION: Block index
+    private NavigableMap<LocalDate, Block> index() {
+        NavigableMap<LocalDate, Block> index = blocks;
+        if (index != null) {
+            return index;
+        }
+        synchronized (writeLock) {
+            if (blocks == null) {
+                NavigableMap<LocalDate, Block> loaded = new ConcurrentSkipListMap<>();
+                File[] files = dir.listFiles((d, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+                if (files != null) {
+                    for (File f : files) {
+                        readIndex(f, loaded);
+                    }
+                }
+                blocks = loaded;
+            }
+            return blocks;
+        }
+    }
+
+    // Reads only the footer and the index entries; no block is touched
+    private static void readIndex(File file, Map<LocalDate, Block> into) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length();
+            if (length < 8 + 4 + FOOTER_BYTES) {
+                throw new IOException("File too short");
+            }
+            raf.seek(length - FOOTER_BYTES);
+            long indexOffset = raf.readLong();
+            if (raf.readInt() != MAGIC || indexOffset < 8 || indexOffset >= length) {
+                throw new IOException("Missing archive footer");
+            }
+            raf.seek(indexOffset);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(raf.getChannel())));
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                LocalDate day = LocalDate.ofEpochDay(in.readLong());
+                long offset = in.readLong();
+                long compressed = in.readLong();
+                long raw = in.readLong();
+                OrderPartitionStore.PartitionHeader h = new OrderPartitionStore.PartitionHeader(day,
+                        in.readLong(), in.readLong(), in.readInt(), in.readInt(), in.readDouble(), in.readLong());
+                into.put(day, new Block(file, offset, compressed, raw, h));
+            }
+        } catch (IOException e) {
+            System.err.println("Skipping order archive " + file + ": " + e.getMessage());
+        }
+    }
+
+    public boolean contains(LocalDate day) {
+        return index().containsKey(day);
+    }
+
+    public boolean isEmpty() {
+        return index().isEmpty();
+    }
+
+    // Headers of archived days in [startDate, endDate], oldest first
+    List<OrderPartitionStore.PartitionHeader> getHeaders(LocalDate startDate, LocalDate endDate) {
+        List<OrderPartitionStore.PartitionHeader> out = new ArrayList<>();
+        for (Block b : index().subMap(startDate, true, endDate, true).values()) {
+            out.add(b.header);
+        }
+        return out;
+    }
+
+    List<OrderPartitionStore.PartitionHeader> getHeaders() {
+        List<OrderPartitionStore.PartitionHeader> out = new ArrayList<>();
+        for (Block b : index().values()) {
+            out.add(b.header);
+        }
+        return out;
+    }
+
+    // Compressed and raw bytes of everything archived
+    public long[] getSizes() {
+        long compressed = 0;
+        long raw = 0;
+        for (Block b : index().values()) {
+            compressed += b.compressedBytes;
+            raw += b.rawBytes;
+        }
+        return new long[]{compressed, raw};
+    }
+
+    // SECTION: Reading
+    /**
+     * Streams one archived day's orders to the consumer, inflating as it goes.
+     * Returns false when the day is not in the archive.
+     */
+    public boolean forEachOrder(LocalDate day, Consumer<Order> consumer) {
+        NavigableMap<LocalDate, Block> index = index(); // loaded before swapLock: loading takes writeLock
+        Block b;
+        FileChannel opened;
+        swapLock.readLock().lock();
+        try {
+            b = index.get(day);
+            if (b == null) {
+                return false;
+            }
+            opened = FileChannel.open(b.file.toPath(), StandardOpenOption.READ); // stays on this version of the file
+        } catch (IOException e) {
+            System.err.println("Error reading archived orders for " + day + ": " + e.getMessage());
+            throw new RuntimeException("Failed to read order archive", e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        PersistenceEvent event = PersistenceEvent.start("orders.readArchive", b.file.getPath());
+        int read = 0;
+        Inflater inflater = new Inflater();
+        try (FileChannel channel = opened) {
+            channel.position(b.offset);
+            InputStream compressed = new BufferedInputStream(Channels.newInputStream(channel), 1 << 14);
+            ObjectInputStream in = new ObjectInputStream(new InflaterInputStream(compressed, inflater, 1 << 14));
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                consumer.accept((Order) in.readObject());
+                read++;
+            }
+            return true;
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error reading archived orders for " + day + ": " + e.getMessage());
+            throw new RuntimeException("Failed to read order archive", e);
+        } finally {
+            inflater.end();
+            event.finish(read, b.compressedBytes);
+        }
+    }
+
+    public List<Order> readDay(LocalDate day) {
+        List<Order> out = new ArrayList<>();
+        forEachOrder(day, out::add);
+        return out;
+    }
+
+    private File fileFor(YearMonth month) {
+        return new File(dir, PREFIX + month + SUFFIX);
+    }
+
+    // SECTION: Stream helpers
+    private static final class CountingOutput extends FilterOutputStream {
+        long count;
+
+        CountingOutput(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    // Lets a per-block stream finish without closing the file underneath it
+    private static final class NonClosing extends FilterOutputStream {
+        NonClosing(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package Entity;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * OrderConfirmEvent class - JFR event for OrderServiceImpl.confirmOrder
+ */
+@Name("cafe.OrderConfirm")
+@Label("Order Confirm")
+@Category({"Midnight Café", "Orders"})
+@Description("Confirming an order, including pricing and kitchen dispatch")
+@StackTrace(false)
+public class OrderConfirmEvent extends jdk.jfr.Event {
+    
+    @Label("Order Lines")
+    int lines;
+    
+    @Label("Units")
+    int units;
+    
+    @Label("Total")
+    double total;
+    
+    @Label("Customer Tier")
+    String customerTier;
+}
@@ -0,0 +1,928 @@
+package Entity;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * OrderJournal class - write-ahead log of order commands plus compact snapshots
+ * Every successful OrderServiceImpl command (create, add item, remove unit, clear,
+ * discount, confirm, cancel) is appended as one framed record. A background thread
+ * forces the log (group commit): one fsync covers every record written while the
+ * previous one ran, and callers that must not answer before the disk has it (the
+ * order API) wait in awaitDurable. The UI thread never waits for the disk.
+ * A snapshot serializes all orders together with the last sequence number it covers,
+ * so recovery = load snapshot + replay the (short) log tail. The log alternates
+ * between two segment files: startSnapshot serializes in memory and switches appends
+ * to the other segment, and a background thread writes and syncs the snapshot and
+ * then empties the old segment. Recovery replays both segments, older first.
+ * Snapshots also hold the stock of every tracked menu item, and replay reserves and
+ * releases units the way OrderServiceImpl did, so recovered stock matches the
+ * recovered orders whatever data.txt says. Stock set by hand is journaled too.
+ *
+ * Record layout: int length | int crc32 | long seq | long epochMillis | byte type | long orderId | payload
+ * (orderId is 0 for STOCK records).
+ * A torn or corrupt tail record (power cut mid-write) ends replay and is cut off.
+ * Kitchen status changes (preparing/ready) are not journaled; they restart as "confirmed"
+ * and OrderServiceImpl queues them in the kitchen again.
+ * CONFIRM records carry the frozen PriceQuote, so replay restores the confirmed
+ * total instead of re-pricing with today's menu and tier policy.
+ */
+public class OrderJournal implements Closeable {
+    public static final String DEFAULT_LOG_FILE = "Data/orders.wal";
+    public static final String DEFAULT_SNAPSHOT_FILE = "Data/orders.snap";
+    public static final int DEFAULT_SNAPSHOT_EVERY = 500;
+
+    private static final byte CREATE = 1;
+    private static final byte ADD_ITEM = 2;
+    private static final byte REMOVE_UNIT = 3;
+    private static final byte CLEAR = 4;
+    private static final byte DISCOUNT = 5;
+    private static final byte CONFIRM = 6;
+    private static final byte CANCEL = 7;
+    private static final byte STOCK = 8;
+    private static final int HEADER_BYTES = 4 + 4;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    // VARIABLE LEGEND: logPath, snapshotPath, snapshotEvery, segments, activeSegment, channel, sequence, recordsSinceSnapshot,
+    //                  stockLevelsKnown, otherSegmentInUse, snapshotThread, syncLock/syncNeeded/syncDone, writtenSequence,
+    //                  forcedSequence, syncFailure, closing, retired, pending, syncThread
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final int snapshotEvery;
+    private final Path[] segments; // logPath and logPath + ".1"
+    private int activeSegment; // the segment channel appends to
+    private volatile FileChannel channel; // replaced under syncLock as well, for the sync thread
+    private long sequence;
+    private int recordsSinceSnapshot;
+    private volatile boolean stockLevelsKnown; // false when the snapshot predates stock levels (or there is none)
+    private boolean otherSegmentInUse; // after a crash mid-snapshot both segments hold records no snapshot covers
+    private Thread snapshotThread; // writes the pending snapshot; never takes this object's monitor
+    // Group commit state; a lock rather than the monitor so waiting API threads do not pin their carrier
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncNeeded = syncLock.newCondition();
+    private final Condition syncDone = syncLock.newCondition();
+    private volatile long writtenSequence;
+    private volatile long forcedSequence;
+    private IOException syncFailure; // last force error, cleared by the next good one (guarded by syncLock)
+    private boolean closing; // guarded by syncLock
+    private FileChannel retired; // the previous segment until the sync thread has forced it (guarded by syncLock)
+    private PendingSnapshot pending; // captured but not yet on disk (guarded by syncLock)
+    private Thread syncThread;
+
+    // SECTION: Constructors
+    public OrderJournal() {
+        this(DEFAULT_LOG_FILE, DEFAULT_SNAPSHOT_FILE, DEFAULT_SNAPSHOT_EVERY);
+    }
+
+    public OrderJournal(String logFile, String snapshotFile, int snapshotEvery) {
+        if (logFile == null || snapshotFile == null) {
+            throw new IllegalArgumentException("Journal paths cannot be null");
+        }
+        if (snapshotEvery <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        this.logPath = Paths.get(logFile);
+        this.snapshotPath = Paths.get(snapshotFile);
+        this.snapshotEvery = snapshotEvery;
+        this.segments = new Path[] {logPath, logPath.resolveSibling(logPath.getFileName() + ".1")};
+    }
+
+    // SECTION: Recovery
+    /**
+     * Loads the latest snapshot, replays the log records after it and opens the
+     * log for appending. Menu items are resolved by name against the given menu;
+     * lines for items no longer on the menu are skipped with a warning.
+     * When the snapshot holds stock levels they replace the menu's, and replayed
+     * commands reserve and release stock again; otherwise the menu's stock is kept
+     * as loaded and the caller should take a snapshot (see hasStockLevels).
+     */
+    public synchronized List<Order> recover(MenuManager menuManager) {
+        if (channel != null) {
+            throw new IllegalStateException("Journal is already open");
+        }
+        PersistenceEvent event = PersistenceEvent.start("orders.recover", logPath.toString());
+        Map<Long, Order> orders = new LinkedHashMap<>();
+        Map<String, Integer> stock = new HashMap<>();
+        long snapshotSeq;
+        try (InputStream snapshot = Files.isRegularFile(snapshotPath) ? Files.newInputStream(snapshotPath) : null) {
+            snapshotSeq = loadSnapshot(snapshot, orders, stock);
+        } catch (IOException e) {
+            System.err.println("Error loading order snapshot: " + e.getMessage());
+            throw new RuntimeException("Failed to load order snapshot", e);
+        }
+        sequence = snapshotSeq;
+        Map<String, Integer> levels = stockLevelsKnown && menuManager != null ? stock : null;
+        Replay[] replayed = {new Replay(), new Replay()};
+        try {
+            Path parent = logPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            byte[][] logs = new byte[2][];
+            for (int s = 0; s < 2; s++) {
+                if (!Files.exists(segments[s])) {
+                    Files.createFile(segments[s]);
+                }
+                logs[s] = Files.readAllBytes(segments[s]);
+            }
+            int active = replaySegments(logs, orders, menuManager, snapshotSeq, levels, replayed);
+            if (levels != null) {
+                applyStock(levels, menuManager);
+            }
+            sequence = Math.max(sequence, Math.max(replayed[0].lastSequence, replayed[1].lastSequence));
+            // The other segment is emptied unless a crash mid-snapshot left records there that
+            // no snapshot covers; then both stay until the next snapshot
+            int other = 1 - active;
+            otherSegmentInUse = replayed[other].lastSequence > snapshotSeq;
+            try (FileChannel old = FileChannel.open(segments[other], StandardOpenOption.WRITE)) {
+                truncateTail(old, otherSegmentInUse ? replayed[other].goodBytes : 0);
+            }
+            // Appends continue right after the last good record; any torn tail is cut off
+            activeSegment = active;
+            channel = FileChannel.open(segments[active], StandardOpenOption.READ, StandardOpenOption.WRITE);
+            truncateTail(channel, replayed[active].goodBytes);
+            channel.position(replayed[active].goodBytes);
+            recordsSinceSnapshot = replayed[0].commands + replayed[1].commands;
+            writtenSequence = sequence;
+            forcedSequence = sequence;
+            startSyncThread();
+        } catch (IOException e) {
+            System.err.println("Error recovering order journal: " + e.getMessage());
+            throw new RuntimeException("Failed to recover order journal", e);
+        } finally {
+            event.finish(recordsSinceSnapshot, logPath.toFile());
+        }
+        if (levels != null) { // republish items that sold out or came back
+            for (MenuItem item : menuManager.getMenuItems()) {
+                if (item.isStockTracked()) {
+                    menuManager.stockChanged(item);
+                }
+            }
+        }
+        if (recordsSinceSnapshot > 0) {
+            System.out.println("Order journal: replayed " + recordsSinceSnapshot + " commands after snapshot " + snapshotSeq);
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    private static void truncateTail(FileChannel log, long good) throws IOException {
+        if (log.size() > good) {
+            if (good > 0) {
+                System.err.println("Order journal: dropping " + (log.size() - good) + " bytes of incomplete records");
+            }
+            log.truncate(good);
+            log.force(true);
+        }
+    }
+
+    /**
+     * The orders a terminal would recover, for reports that run next to it. Nothing
+     * is written: no snapshot, no truncation of a torn tail (the terminal may be
+     * halfway through that record), no stock changes, and the journal stays closed.
+     * All files are copied first and only used if the snapshot did not change
+     * meanwhile (a new snapshot empties a log segment); otherwise they are copied again.
+     * Use a journal instance of its own; this one is never opened.
+     */
+    public synchronized List<Order> readOrders(MenuManager menuManager) {
+        if (channel != null) {
+            throw new IllegalStateException("Journal is open for appending; read a separate instance");
+        }
+        PersistenceEvent event = PersistenceEvent.start("orders.read", logPath.toString());
+        Map<Long, Order> orders = new LinkedHashMap<>();
+        Replay[] replayed = {new Replay(), new Replay()};
+        try {
+            byte[] snapshot;
+            byte[][] logs = new byte[2][];
+            for (int attempt = 1; ; attempt++) {
+                snapshot = Files.isRegularFile(snapshotPath) ? Files.readAllBytes(snapshotPath) : null;
+                for (int s = 0; s < 2; s++) {
+                    logs[s] = Files.exists(segments[s]) ? Files.readAllBytes(segments[s]) : new byte[0];
+                }
+                if (readSnapshotSequence(snapshot) == readSnapshotSequence()) {
+                    break;
+                }
+                if (attempt == 10) {
+                    throw new IllegalStateException("Order journal keeps changing under the reader: " + logPath);
+                }
+            }
+            long snapshotSeq = loadSnapshot(snapshot != null ? new ByteArrayInputStream(snapshot) : null,
+                    orders, new HashMap<>());
+            replaySegments(logs, orders, menuManager, snapshotSeq, null, replayed);
+            return new ArrayList<>(orders.values());
+        } catch (IOException e) {
+            System.err.println("Error reading order journal: " + e.getMessage());
+            throw new RuntimeException("Failed to read order journal", e);
+        } finally {
+            event.finish(replayed[0].commands + replayed[1].commands, logPath.toFile());
+        }
+    }
+
+    // Replays both segments, the one with the older records first. Returns the segment
+    // appends continue in: the newer one, unless it holds no complete record.
+    private static int replaySegments(byte[][] logs, Map<Long, Order> orders, MenuManager menuManager, long snapshotSeq,
+                                      Map<String, Integer> stock, Replay[] results) throws IOException {
+        int older = firstSequence(logs[1]) < firstSequence(logs[0]) ? 1 : 0;
+        int newer = 1 - older;
+        replayLog(new ByteArrayInputStream(logs[older]), orders, menuManager, snapshotSeq, stock, results[older]);
+        replayLog(new ByteArrayInputStream(logs[newer]), orders, menuManager, snapshotSeq, stock, results[newer]);
+        return results[newer].goodBytes > 0 ? newer : older;
+    }
+
+    // Long.MAX_VALUE for a segment without a complete record
+    private static long firstSequence(byte[] log) throws IOException {
+        byte[] record = readRecord(new DataInputStream(new ByteArrayInputStream(log)));
+        return record == null ? Long.MAX_VALUE : ByteBuffer.wrap(record).getLong();
+    }
+
+    // What one pass over the log found
+    private static final class Replay {
+        long goodBytes; // length of the log up to the first torn or corrupt record
+        int commands; // records after the snapshot that were replayed
+        long lastSequence;
+    }
+
+    private static void replayLog(InputStream log, Map<Long, Order> orders, MenuManager menuManager, long snapshotSeq,
+                                  Map<String, Integer> stock, Replay result) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(log));
+        while (true) {
+            byte[] record = readRecord(in);
+            if (record == null) {
+                break;
+            }
+            result.goodBytes += HEADER_BYTES + record.length;
+            long seq = ByteBuffer.wrap(record).getLong();
+            if (seq > snapshotSeq) {
+                try {
+                    replay(record, orders, menuManager, stock);
+                } catch (RuntimeException e) { // e.g. confirm of an order whose items left the menu
+                    System.err.println("Order journal: record " + seq + " not applied: " + e.getMessage());
+                }
+                result.commands++;
+            }
+            result.lastSequence = Math.max(result.lastSequence, seq);
+        }
+    }
+
+    // Sequence number a snapshot covers, without reading its orders; 0 when there is none
+    private long readSnapshotSequence() throws IOException {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return 0;
+        }
+        try (InputStream in = Files.newInputStream(snapshotPath)) {
+            return new ObjectInputStream(new BufferedInputStream(in)).readLong();
+        }
+    }
+
+    private static long readSnapshotSequence(byte[] snapshot) throws IOException {
+        return snapshot == null ? 0 : new ObjectInputStream(new ByteArrayInputStream(snapshot)).readLong();
+    }
+
+    // A null source means there is no snapshot yet
+    @SuppressWarnings("unchecked")
+    private long loadSnapshot(InputStream source, Map<Long, Order> into, Map<String, Integer> stock) {
+        stockLevelsKnown = false;
+        if (source == null) {
+            return 0;
+        }
+        PersistenceEvent event = PersistenceEvent.start("orders.loadSnapshot", snapshotPath.toString());
+        try {
+            ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(source));
+            long seq = ois.readLong();
+            for (Order order : (List<Order>) ois.readObject()) {
+                into.put(order.getOrderId(), order);
+            }
+            try {
+                stock.putAll((Map<String, Integer>) ois.readObject());
+                stockLevelsKnown = true;
+            } catch (EOFException e) {
+                // written before snapshots held stock levels
+            }
+            return seq;
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error loading order snapshot: " + e.getMessage());
+            throw new RuntimeException("Failed to load order snapshot", e);
+        } finally {
+            event.finish(into.size(), snapshotPath.toFile());
+        }
+    }
+
+    // Returns null at a clean end of log or at the first torn/corrupt record
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        int length;
+        int crc;
+        try {
+            length = in.readInt();
+            crc = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length <= 0 || length > MAX_RECORD_BYTES) {
+            return null;
+        }
+        byte[] record = new byte[length];
+        try {
+            in.readFully(record);
+        } catch (EOFException e) {
+            return null;
+        }
+        CRC32 check = new CRC32();
+        check.update(record);
+        return (int) check.getValue() == crc ? record : null;
+    }
+
+    // With stock levels given, units are reserved and released there as OrderServiceImpl did when the command ran
+    private static void replay(byte[] record, Map<Long, Order> orders, MenuManager menuManager,
+                               Map<String, Integer> stock) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        in.readLong(); // sequence
+        long millis = in.readLong();
+        byte type = in.readByte();
+        long orderId = in.readLong();
+
+        if (type == STOCK) {
+            String name = in.readUTF();
+            int quantity = in.readInt();
+            if (stock != null) {
+                stock.put(name, quantity == MenuItem.UNLIMITED_STOCK ? null : quantity);
+            }
+            return;
+        }
+
+        if (type == CREATE) {
+            Customer customer;
+            try (ObjectInputStream ois = new ObjectInputStream(in)) {
+                customer = (Customer) ois.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Bad customer in order journal", e);
+            }
+            Order order = new Order(customer);
+            order.setOrderId(orderId);
+            order.setOrderDate(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()));
+            orders.put(orderId, order);
+            return;
+        }
+
+        Order order = orders.get(orderId);
+        if (order == null) {
+            System.err.println("Order journal: skipping command for unknown order " + orderId);
+            return;
+        }
+        switch (type) {
+            case ADD_ITEM: {
+                String name = in.readUTF();
+                int quantity = in.readInt();
+                MenuItem item = menuManager != null ? menuManager.findMenuItem(name) : null;
+                if (item == null) {
+                    System.err.println("Order journal: '" + name + "' is no longer on the menu, skipped");
+                } else {
+                    order.addReservedItem(item, quantity);
+                    adjust(stock, menuManager, name, -quantity);
+                }
+                break;
+            }
+            case REMOVE_UNIT: {
+                boolean held = order.holdsStock();
+                MenuItem removed = order.removeLastUnitItem();
+                if (held && removed != null) {
+                    adjust(stock, menuManager, removed.getName(), 1);
+                }
+                break;
+            }
+            case CLEAR: {
+                List<OrderItem> held = order.holdsStock() ? order.getItems() : Collections.emptyList();
+                order.clear();
+                releaseAll(stock, menuManager, held);
+                break;
+            }
+            case DISCOUNT:
+                order.setDiscountPercent(in.readDouble());
+                break;
+            case CONFIRM: {
+                PriceQuote quote;
+                if (in.available() > 0) {
+                    try (ObjectInputStream ois = new ObjectInputStream(in)) {
+                        quote = (PriceQuote) ois.readObject();
+                    } catch (ClassNotFoundException e) {
+                        throw new IOException("Bad price quote in order journal", e);
+                    }
+                } else { // logged before CONFIRM carried the quote
+                    quote = PricingEngine.getDefault().price(order);
+                }
+                order.restoreConfirmed(quote);
+                break;
+            }
+            case CANCEL: {
+                String previous = order.getOrderStatus();
+                // Kitchen progress is not journaled, so the record says whether stock went back
+                boolean released = in.available() > 0 ? in.readBoolean()
+                        : "pending".equals(previous) || "confirmed".equals(previous);
+                order.cancelOrder();
+                if (released) {
+                    releaseAll(stock, menuManager, order.getItems());
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown order journal record type " + type);
+        }
+    }
+
+    private static void releaseAll(Map<String, Integer> stock, MenuManager menuManager, List<OrderItem> lines) {
+        for (OrderItem line : lines) {
+            adjust(stock, menuManager, line.getItemName(), line.getQuantity());
+        }
+    }
+
+    // Stock moves are summed by item name (null = not tracked) and set on the menu after replay.
+    // Two terminals can log a reserve ahead of the release that made room for it, so a
+    // level may dip below zero midway; only the end result has to add up.
+    private static void adjust(Map<String, Integer> stock, MenuManager menuManager, String name, int delta) {
+        if (stock == null) {
+            return;
+        }
+        if (!stock.containsKey(name)) {
+            MenuItem item = menuManager.findMenuItem(name);
+            stock.put(name, item != null && item.isStockTracked() ? item.getStock() : null);
+        }
+        Integer level = stock.get(name);
+        if (level != null) {
+            stock.put(name, level + delta);
+        }
+    }
+
+    private static void applyStock(Map<String, Integer> stock, MenuManager menuManager) {
+        for (Map.Entry<String, Integer> level : stock.entrySet()) {
+            MenuItem item = menuManager.findMenuItem(level.getKey());
+            if (item == null) {
+                continue;
+            }
+            Integer value = level.getValue();
+            if (value != null && value < 0) {
+                System.err.println("Order journal: " + level.getKey() + " recovered " + value + " in stock, using 0");
+                value = 0;
+            }
+            item.setStock(value != null ? value : MenuItem.UNLIMITED_STOCK);
+        }
+    }
+
+    // SECTION: Appending
+    void logCreate(Order order) {
+        append(CREATE, order.getOrderId(), out -> {
+            ObjectOutputStream oos = new ObjectOutputStream(out);
+            oos.writeObject(order.getCustomer());
+            oos.flush();
+        });
+    }
+
+    void logAddItem(Order order, MenuItem item, int quantity) {
+        append(ADD_ITEM, order.getOrderId(), out -> {
+            out.writeUTF(item.getName());
+            out.writeInt(quantity);
+        });
+    }
+
+    void logRemoveUnit(Order order) {
+        append(REMOVE_UNIT, order.getOrderId(), null);
+    }
+
+    void logClear(Order order) {
+        append(CLEAR, order.getOrderId(), null);
+    }
+
+    void logDiscount(Order order, double discountPercent) {
+        append(DISCOUNT, order.getOrderId(), out -> out.writeDouble(discountPercent));
+    }
+
+    // After Order.confirmOrder(), so the quote is the frozen one
+    void logConfirm(Order order) {
+        append(CONFIRM, order.getOrderId(), out -> {
+            ObjectOutputStream oos = new ObjectOutputStream(out);
+            oos.writeObject(order.getQuote());
+            oos.flush();
+        });
+    }
+
+    void logCancel(Order order, boolean stockReleased) {
+        append(CANCEL, order.getOrderId(), out -> out.writeBoolean(stockReleased));
+    }
+
+    void logStock(String itemName, int quantity) {
+        append(STOCK, 0, out -> {
+            out.writeUTF(itemName);
+            out.writeInt(quantity);
+        });
+    }
+
+    private interface Payload {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private synchronized void append(byte type, long orderId, Payload payload) {
+        if (channel == null) {
+            throw new IllegalStateException("Journal is not open; call recover() first");
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0); // length, patched below
+            out.writeInt(0); // crc, patched below
+            out.writeLong(sequence + 1);
+            out.writeLong(System.currentTimeMillis());
+            out.writeByte(type);
+            out.writeLong(orderId);
+            if (payload != null) {
+                payload.write(out);
+            }
+            out.flush();
+
+            ByteBuffer buf = ByteBuffer.wrap(bytes.toByteArray());
+            int length = buf.limit() - HEADER_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buf.array(), HEADER_BYTES, length);
+            buf.putInt(0, length);
+            buf.putInt(4, (int) crc.getValue());
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            sequence++;
+            recordsSinceSnapshot++;
+        } catch (IOException e) {
+            System.err.println("Error writing order journal: " + e.getMessage());
+            throw new RuntimeException("Failed to write order journal", e);
+        }
+        writtenSequence = sequence;
+        syncLock.lock();
+        try {
+            syncNeeded.signal();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // SECTION: Group commit
+    private void startSyncThread() {
+        syncLock.lock();
+        try {
+            closing = false;
+            syncFailure = null;
+        } finally {
+            syncLock.unlock();
+        }
+        syncThread = new Thread(this::syncLoop, "order-journal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    // Never interrupted: an interrupt during force() would close the channel under the writers.
+    // After a segment switch the retired segment is forced first (its records come before
+    // the active segment's) and then closed here, so no force ever runs on a closed channel.
+    private void syncLoop() {
+        while (true) {
+            long target;
+            FileChannel log;
+            FileChannel old;
+            syncLock.lock();
+            try {
+                while (!closing && forcedSequence >= writtenSequence && retired == null) {
+                    syncNeeded.awaitUninterruptibly();
+                }
+                if (closing) {
+                    return; // close() does the last force itself
+                }
+                target = writtenSequence;
+                log = channel;
+                old = retired;
+            } finally {
+                syncLock.unlock();
+            }
+            IOException failure = null;
+            try {
+                if (old != null) {
+                    old.force(false);
+                }
+                log.force(false);
+            } catch (IOException e) {
+                failure = e;
+                System.err.println("Error syncing order journal: " + e.getMessage());
+            }
+            syncLock.lock();
+            try {
+                syncFailure = failure;
+                if (failure == null) {
+                    forcedSequence = Math.max(forcedSequence, target);
+                    if (old != null) {
+                        retired = null;
+                        closeQuietly(old);
+                    }
+                } else {
+                    syncNeeded.awaitNanos(100_000_000L); // back off before retrying
+                }
+                syncDone.signalAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Blocks until every record up to the given sequence number is on disk. Many
+     * callers share one fsync, so this is cheap under load; use it before telling
+     * a remote client that a command is done.
+     */
+    public void awaitDurable(long sequenceNumber) {
+        syncLock.lock();
+        try {
+            while (forcedSequence < sequenceNumber) {
+                if (syncFailure != null) {
+                    throw new RuntimeException("Failed to write order journal", syncFailure);
+                }
+                if (closing) {
+                    throw new IllegalStateException("Journal is closed");
+                }
+                syncDone.awaitUninterruptibly();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private static void closeQuietly(FileChannel log) {
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.err.println("Error closing order journal segment: " + e.getMessage());
+        }
+    }
+
+    private void markForced(long sequenceNumber) {
+        syncLock.lock();
+        try {
+            forcedSequence = Math.max(forcedSequence, sequenceNumber);
+            syncDone.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // SECTION: Snapshots
+    // False while a snapshot is being written; a failed one is due again right away
+    public synchronized boolean isSnapshotDue() {
+        if (snapshotThread != null && snapshotThread.isAlive()) {
+            return false;
+        }
+        return recordsSinceSnapshot >= snapshotEvery || pendingSnapshot() != null;
+    }
+
+    public synchronized int getRecordsSinceSnapshot() {
+        return recordsSinceSnapshot;
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    // False until a snapshot with stock levels was recovered or written
+    public synchronized boolean hasStockLevels() {
+        return stockLevelsKnown;
+    }
+
+    // A snapshot serialized under the caller's lock, waiting for the background writer
+    private static final class PendingSnapshot {
+        final long sequence;
+        final byte[] bytes;
+        final int orderCount;
+        final int oldSegment; // emptied once the snapshot is on disk
+
+        PendingSnapshot(long sequence, byte[] bytes, int orderCount, int oldSegment) {
+            this.sequence = sequence;
+            this.bytes = bytes;
+            this.orderCount = orderCount;
+            this.oldSegment = oldSegment;
+        }
+    }
+
+    private boolean retiredSegmentOpen() {
+        syncLock.lock();
+        try {
+            return retired != null;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private PendingSnapshot pendingSnapshot() {
+        syncLock.lock();
+        try {
+            return pending;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Takes a snapshot without waiting for the disk. Every order and the stock of
+     * every tracked item are serialized in memory and appends switch to the other
+     * log segment; a background thread then writes and syncs the snapshot file and
+     * empties the old segment. Same locking rule as writeSnapshot. Does nothing while
+     * a snapshot is being written or the sync thread has not closed the previous
+     * segment yet; a snapshot that failed to write is retried as it was captured.
+     */
+    public synchronized void startSnapshot(List<Order> orders, Map<String, Integer> stock) {
+        if (channel == null) {
+            throw new IllegalStateException("Journal is not open; call recover() first");
+        }
+        if (snapshotThread != null && snapshotThread.isAlive()) {
+            return;
+        }
+        PendingSnapshot job = pendingSnapshot();
+        if (job == null) {
+            if (otherSegmentInUse) { // only right after a crash mid-snapshot
+                writeSnapshot(orders, stock);
+                return;
+            }
+            if (retiredSegmentOpen()) {
+                return; // the sync thread still has to force it
+            }
+            int next = 1 - activeSegment;
+            FileChannel fresh;
+            try {
+                job = new PendingSnapshot(sequence, serialize(orders, stock), orders.size(), activeSegment);
+                fresh = FileChannel.open(segments[next], StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                System.err.println("Error writing order snapshot: " + e.getMessage());
+                throw new RuntimeException("Failed to write order snapshot", e);
+            }
+            syncLock.lock();
+            try {
+                retired = channel;
+                channel = fresh;
+                pending = job;
+                syncNeeded.signal();
+            } finally {
+                syncLock.unlock();
+            }
+            activeSegment = next;
+            recordsSinceSnapshot = 0;
+        }
+        PendingSnapshot captured = job;
+        snapshotThread = new Thread(() -> writePending(captured), "order-journal-snapshot");
+        snapshotThread.setDaemon(true);
+        snapshotThread.start();
+    }
+
+    // Runs on snapshotThread; must not take this object's monitor (close and writeSnapshot join it)
+    private void writePending(PendingSnapshot job) {
+        PersistenceEvent event = PersistenceEvent.start("orders.snapshot", snapshotPath.toString());
+        try {
+            writeSnapshotFile(job.bytes);
+            // every record in the old segment is in the snapshot now
+            try (FileChannel old = FileChannel.open(segments[job.oldSegment], StandardOpenOption.WRITE)) {
+                old.truncate(0);
+            }
+            stockLevelsKnown = true;
+            syncLock.lock();
+            try {
+                if (pending == job) {
+                    pending = null;
+                }
+            } finally {
+                syncLock.unlock();
+            }
+            markForced(job.sequence);
+        } catch (IOException e) {
+            System.err.println("Error writing order snapshot: " + e.getMessage()); // retried by the next startSnapshot
+        } finally {
+            event.finish(job.orderCount, snapshotPath.toFile());
+        }
+    }
+
+    /**
+     * Writes every order and the stock of every tracked item as of the current
+     * sequence and empties both log segments, waiting for the disk. The caller must
+     * make sure no command is applied (and no stock is reserved) while this runs;
+     * OrderServiceImpl holds its journal write lock. A crash between the steps is
+     * harmless: replay skips records the snapshot already covers.
+     */
+    public synchronized void writeSnapshot(List<Order> orders, Map<String, Integer> stock) {
+        if (channel == null) {
+            throw new IllegalStateException("Journal is not open; call recover() first");
+        }
+        joinSnapshotThread();
+        PersistenceEvent event = PersistenceEvent.start("orders.snapshot", snapshotPath.toString());
+        try {
+            writeSnapshotFile(serialize(orders, stock));
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            try (FileChannel other = FileChannel.open(segments[1 - activeSegment], StandardOpenOption.WRITE)) {
+                other.truncate(0);
+            }
+            otherSegmentInUse = false;
+            recordsSinceSnapshot = 0;
+            stockLevelsKnown = true;
+            syncLock.lock();
+            try {
+                pending = null; // superseded
+            } finally {
+                syncLock.unlock();
+            }
+            markForced(sequence); // everything so far is in the snapshot
+        } catch (IOException e) {
+            System.err.println("Error writing order snapshot: " + e.getMessage());
+            throw new RuntimeException("Failed to write order snapshot", e);
+        } finally {
+            event.finish(orders.size(), snapshotPath.toFile());
+        }
+    }
+
+    private byte[] serialize(List<Order> orders, Map<String, Integer> stock) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeLong(sequence);
+            oos.writeObject(new ArrayList<>(orders));
+            oos.writeObject(new HashMap<>(stock));
+        }
+        return bytes.toByteArray();
+    }
+
+    // Written to a temp file, synced, then moved over the old snapshot
+    private void writeSnapshotFile(byte[] snapshot) throws IOException {
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+            fos.write(snapshot);
+            fos.getFD().sync();
+        }
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void joinSnapshotThread() {
+        boolean interrupted = false;
+        while (snapshotThread != null && snapshotThread.isAlive()) {
+            try {
+                snapshotThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Forces what the sync thread has not reached yet, then closes the log
+    @Override
+    public synchronized void close() {
+        if (channel != null) {
+            syncLock.lock();
+            try {
+                closing = true;
+                syncNeeded.signal();
+            } finally {
+                syncLock.unlock();
+            }
+            boolean interrupted = false;
+            while (syncThread.isAlive()) {
+                try {
+                    syncThread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            joinSnapshotThread();
+            try {
+                if (retired != null) {
+                    retired.force(false);
+                    retired.close();
+                    retired = null;
+                }
+                channel.force(false);
+                markForced(sequence);
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing order journal: " + e.getMessage());
+            }
+            channel = null;
+            syncLock.lock();
+            try {
+                syncDone.signalAll(); // waiters past the last force give up (see awaitDurable)
+            } finally {
+                syncLock.unlock();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
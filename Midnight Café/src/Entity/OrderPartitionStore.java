@@ -0,0 +1,457 @@
+package Entity;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * OrderPartitionStore class - orders stored as one file per day under Data/orders/
+ * Each partition starts with a fixed-size header (day, min/max order time, order
+ * count, sold count, sold revenue, highest order id) followed by the serialized
+ * orders. Headers are read once into an index, so range queries skip partitions
+ * outside the range without opening them, and count/revenue questions over whole
+ * days are answered from headers alone.
+ * Whole months older than the archive horizon move to a compressed OrderArchive in
+ * archive/ underneath; every query below reads both tiers, and a live partition
+ * wins over an archived copy of the same day.
+ */
+public class OrderPartitionStore {
+    public static final String DEFAULT_DIR = "Data/orders";
+
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final int MAGIC = 0x4F_50_41_52; // "OPAR"
+    private static final int FORMAT_VERSION = 1;
+    private static final String PREFIX = "orders-";
+    private static final String SUFFIX = ".dat";
+    public static final int DEFAULT_ARCHIVE_AFTER_DAYS = 90;
+
+    // VARIABLE LEGEND: dir, archive (cold tier), headers (by day, loaded lazily), writeLock, archiver
+    private final File dir;
+    private final OrderArchive archive;
+    private volatile NavigableMap<LocalDate, PartitionHeader> headers;
+    private final Object writeLock = new Object();
+    private ScheduledExecutorService archiver;
+
+    public OrderPartitionStore() {
+        this(DEFAULT_DIR);
+    }
+
+    public OrderPartitionStore(String dir) {
+        if (dir == null || dir.trim().isEmpty()) {
+            throw new IllegalArgumentException("Partition directory cannot be null or empty");
+        }
+        this.dir = new File(dir);
+        this.archive = new OrderArchive(new File(this.dir, "archive").getPath());
+    }
+
+    public File getDirectory() {
+        return dir;
+    }
+
+    public OrderArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * PartitionHeader class - what the store knows about one day without reading its orders
+     */
+    public static final class PartitionHeader {
+        private final LocalDate day;
+        private final long minTimestamp; // epoch millis of the earliest order
+        private final long maxTimestamp;
+        private final int orderCount;
+        private final int soldCount;
+        private final double revenue; // sold orders only, see SalesSummary.isSold
+        private final long maxOrderId;
+
+        PartitionHeader(LocalDate day, long minTimestamp, long maxTimestamp, int orderCount,
+                        int soldCount, double revenue, long maxOrderId) {
+            this.day = day;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+            this.orderCount = orderCount;
+            this.soldCount = soldCount;
+            this.revenue = revenue;
+            this.maxOrderId = maxOrderId;
+        }
+
+        public LocalDate getDay() { return day; }
+        public long getMinTimestamp() { return minTimestamp; }
+        public long getMaxTimestamp() { return maxTimestamp; }
+        public int getOrderCount() { return orderCount; }
+        public int getSoldCount() { return soldCount; }
+        public double getRevenue() { return revenue; }
+        public long getMaxOrderId() { return maxOrderId; }
+
+        // Overlaps [from, to) given in epoch millis
+        public boolean overlaps(long from, long to) {
+            return maxTimestamp >= from && minTimestamp < to;
+        }
+    }
+
+    // SECTION: Writing
+    /**
+     * Adds or replaces orders (matched by order id) in their day partitions. Only the
+     * partitions that receive orders are rewritten, each via temp file + atomic move.
+     */
+    public void store(Collection<Order> orders) {
+        if (orders == null) {
+            throw new IllegalArgumentException("Orders cannot be null");
+        }
+        Map<LocalDate, List<Order>> byDay = new TreeMap<>();
+        for (Order order : orders) {
+            byDay.computeIfAbsent(order.getOrderDate().toLocalDate(), d -> new ArrayList<>()).add(order);
+        }
+        synchronized (writeLock) {
+            index(); // make sure the index exists before we update it
+            for (Map.Entry<LocalDate, List<Order>> e : byDay.entrySet()) {
+                List<Order> merged = readDay(e.getKey()); // an archived day comes back as a live partition
+                Map<Long, Integer> positionById = new HashMap<>();
+                for (int i = 0; i < merged.size(); i++) {
+                    if (merged.get(i).getOrderId() > 0) {
+                        positionById.put(merged.get(i).getOrderId(), i);
+                    }
+                }
+                for (Order order : e.getValue()) {
+                    Integer at = order.getOrderId() > 0 ? positionById.get(order.getOrderId()) : null;
+                    if (at != null) {
+                        merged.set(at, order);
+                    } else {
+                        positionById.put(order.getOrderId(), merged.size());
+                        merged.add(order);
+                    }
+                }
+                writePartition(e.getKey(), merged);
+            }
+        }
+    }
+
+    private void writePartition(LocalDate day, List<Order> orders) {
+        PartitionHeader header = headerFor(day, orders);
+        File target = fileFor(day);
+        File tmp = new File(target.getPath() + ".tmp");
+        PersistenceEvent event = PersistenceEvent.start("orders.writePartition", target.getPath());
+        try {
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(day.toEpochDay());
+                out.writeLong(header.minTimestamp);
+                out.writeLong(header.maxTimestamp);
+                out.writeInt(header.orderCount);
+                out.writeInt(header.soldCount);
+                out.writeDouble(header.revenue);
+                out.writeLong(header.maxOrderId);
+                ObjectOutputStream oos = new ObjectOutputStream(out);
+                oos.writeObject(new ArrayList<>(orders));
+                oos.flush();
+            }
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            headers.put(day, header);
+        } catch (IOException e) {
+            System.err.println("Error writing order partition " + day + ": " + e.getMessage());
+            throw new RuntimeException("Failed to write order partition", e);
+        } finally {
+            event.finish(orders.size(), target);
+        }
+    }
+
+    static PartitionHeader headerFor(LocalDate day, List<Order> orders) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int sold = 0;
+        double revenue = 0.0;
+        long maxId = 0;
+        for (Order order : orders) {
+            long ts = toMillis(order.getOrderDate());
+            min = Math.min(min, ts);
+            max = Math.max(max, ts);
+            if (SalesSummary.isSold(order)) {
+                sold++;
+                revenue += order.getTotalPrice();
+            }
+            maxId = Math.max(maxId, order.getOrderId());
+        }
+        return new PartitionHeader(day, min, max, orders.size(), sold, revenue, maxId);
+    }
+
+    // SECTION: Header index
+    private NavigableMap<LocalDate, PartitionHeader> index() {
+        NavigableMap<LocalDate, PartitionHeader> index = headers;
+        if (index != null) {
+            return index;
+        }
+        synchronized (writeLock) {
+            if (headers == null) {
+                NavigableMap<LocalDate, PartitionHeader> loaded = new ConcurrentSkipListMap<>();
+                File[] files = dir.listFiles((d, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+                if (files != null) {
+                    for (File f : files) {
+                        PartitionHeader h = readHeader(f);
+                        if (h != null) {
+                            loaded.put(h.day, h);
+                        }
+                    }
+                }
+                headers = loaded;
+            }
+            return headers;
+        }
+    }
+
+    private static PartitionHeader readHeader(File file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                System.err.println("Skipping unknown order partition " + file);
+                return null;
+            }
+            return new PartitionHeader(LocalDate.ofEpochDay(in.readLong()), in.readLong(), in.readLong(),
+                    in.readInt(), in.readInt(), in.readDouble(), in.readLong());
+        } catch (IOException e) {
+            System.err.println("Error reading order partition header " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Headers of the days in [startDate, endDate] across both tiers, oldest first; nothing is opened
+    public List<PartitionHeader> getHeaders(LocalDate startDate, LocalDate endDate) {
+        checkRange(startDate, endDate);
+        return new ArrayList<>(headersIn(startDate, endDate).values());
+    }
+
+    public List<PartitionHeader> getHeaders() {
+        return new ArrayList<>(merge(archive.getHeaders(), index()).values());
+    }
+
+    private NavigableMap<LocalDate, PartitionHeader> headersIn(LocalDate startDate, LocalDate endDate) {
+        return merge(archive.getHeaders(startDate, endDate), index().subMap(startDate, true, endDate, true));
+    }
+
+    private static NavigableMap<LocalDate, PartitionHeader> merge(List<PartitionHeader> archived,
+                                                                 Map<LocalDate, PartitionHeader> live) {
+        NavigableMap<LocalDate, PartitionHeader> out = new TreeMap<>();
+        for (PartitionHeader h : archived) {
+            out.put(h.day, h);
+        }
+        out.putAll(live);
+        return out;
+    }
+
+    // SECTION: Queries
+    public List<Order> getOrdersByDateRange(LocalDate startDate, LocalDate endDate) {
+        List<Order> out = new ArrayList<>();
+        for (PartitionHeader h : getHeaders(startDate, endDate)) {
+            out.addAll(readDay(h.day));
+        }
+        return out;
+    }
+
+    // Streams the orders of [startDate, endDate] day by day; archived days are inflated as they are read
+    public void forEachOrder(LocalDate startDate, LocalDate endDate, Consumer<Order> consumer) {
+        for (LocalDate day : headersIn(startDate, endDate).keySet()) {
+            if (index().containsKey(day)) {
+                readPartition(day).forEach(consumer);
+            } else {
+                archive.forEachOrder(day, consumer);
+            }
+        }
+    }
+
+    // Orders placed in [from, to); partitions whose time span misses the window are not opened
+    public List<Order> getOrdersBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Start and end times cannot be null");
+        }
+        long fromMillis = toMillis(from);
+        long toMillis = toMillis(to);
+        List<Order> out = new ArrayList<>();
+        for (PartitionHeader h : headersIn(from.toLocalDate(), to.toLocalDate()).values()) {
+            if (!h.overlaps(fromMillis, toMillis)) {
+                continue;
+            }
+            for (Order order : readDay(h.day)) {
+                LocalDateTime t = order.getOrderDate();
+                if (!t.isBefore(from) && t.isBefore(to)) {
+                    out.add(order);
+                }
+            }
+        }
+        return out;
+    }
+
+    // Header-only aggregates
+    public double getRevenue(LocalDate startDate, LocalDate endDate) {
+        double total = 0.0;
+        for (PartitionHeader h : getHeaders(startDate, endDate)) {
+            total += h.revenue;
+        }
+        return total;
+    }
+
+    public long getSoldCount(LocalDate startDate, LocalDate endDate) {
+        long total = 0;
+        for (PartitionHeader h : getHeaders(startDate, endDate)) {
+            total += h.soldCount;
+        }
+        return total;
+    }
+
+    public long getOrderCount(LocalDate startDate, LocalDate endDate) {
+        long total = 0;
+        for (PartitionHeader h : getHeaders(startDate, endDate)) {
+            total += h.orderCount;
+        }
+        return total;
+    }
+
+    public long getMaxOrderId() {
+        long max = 0;
+        for (PartitionHeader h : getHeaders()) {
+            max = Math.max(max, h.maxOrderId);
+        }
+        return max;
+    }
+
+    public boolean isEmpty() {
+        return index().isEmpty() && archive.isEmpty();
+    }
+
+    public List<Order> loadAll() {
+        List<Order> out = new ArrayList<>();
+        for (PartitionHeader h : getHeaders()) {
+            out.addAll(readDay(h.day));
+        }
+        return out;
+    }
+
+    // SECTION: Archiving
+    /**
+     * Moves every whole month that ended before the cutoff into the compressed archive
+     * and deletes its day partitions. The archive file is complete on disk before any
+     * partition is removed, so a crash in between only leaves a day in both tiers.
+     * Returns the number of day partitions archived.
+     */
+    public int archiveOlderThan(LocalDate cutoff) {
+        if (cutoff == null) {
+            throw new IllegalArgumentException("Cutoff date cannot be null");
+        }
+        int archived = 0;
+        synchronized (writeLock) {
+            Map<YearMonth, List<LocalDate>> byMonth = new TreeMap<>();
+            for (LocalDate day : index().headMap(cutoff, false).keySet()) {
+                YearMonth month = YearMonth.from(day);
+                if (month.atEndOfMonth().isBefore(cutoff)) {
+                    byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(day);
+                }
+            }
+            for (Map.Entry<YearMonth, List<LocalDate>> e : byMonth.entrySet()) {
+                YearMonth month = e.getKey();
+                // days archived earlier stay in the rewritten month file
+                NavigableMap<LocalDate, List<Order>> days = new TreeMap<>();
+                for (PartitionHeader h : archive.getHeaders(month.atDay(1), month.atEndOfMonth())) {
+                    days.put(h.day, archive.readDay(h.day));
+                }
+                for (LocalDate day : e.getValue()) {
+                    days.put(day, readPartition(day));
+                }
+                archive.writeMonth(month, days);
+                for (LocalDate day : e.getValue()) {
+                    headers.remove(day);
+                    fileFor(day).delete();
+                }
+                archived += e.getValue().size();
+            }
+        }
+        METRICS.add("orders.partitionsArchived", archived);
+        return archived;
+    }
+
+    // Archives months older than keepDays now and then every periodHours, on a daemon thread
+    public synchronized void startArchiving(int keepDays, long periodHours) {
+        if (keepDays < 0 || periodHours <= 0) {
+            throw new IllegalArgumentException("Archive horizon and period must be positive");
+        }
+        stopArchiving();
+        archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-archiver");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        archiver.scheduleWithFixedDelay(() -> {
+            try {
+                int archived = archiveOlderThan(LocalDate.now().minusDays(keepDays));
+                if (archived > 0) {
+                    System.out.println("Archived " + archived + " order partitions in " + dir);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Order archiving failed: " + e.getMessage());
+            }
+        }, 0, periodHours, TimeUnit.HOURS);
+    }
+
+    public synchronized void stopArchiving() {
+        if (archiver != null) {
+            archiver.shutdownNow();
+            archiver = null;
+        }
+    }
+
+    // SECTION: Partition files
+    // One day from whichever tier holds it
+    private List<Order> readDay(LocalDate day) {
+        return index().containsKey(day) ? readPartition(day) : archive.readDay(day);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Order> readPartition(LocalDate day) {
+        File file = fileFor(day);
+        if (!file.isFile()) {
+            return archive.readDay(day); // archived since the caller looked at the index
+        }
+        METRICS.increment("orders.partitionsRead");
+        PersistenceEvent event = PersistenceEvent.start("orders.readPartition", file.getPath());
+        List<Order> orders = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not an order partition: " + file);
+            }
+            in.readLong(); in.readLong(); in.readLong(); // day, min, max
+            in.readInt(); in.readInt(); in.readDouble(); in.readLong(); // counts, revenue, max id
+            ObjectInputStream ois = new ObjectInputStream(in);
+            orders = (List<Order>) ois.readObject();
+            return orders;
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error reading order partition " + day + ": " + e.getMessage());
+            throw new RuntimeException("Failed to read order partition", e);
+        } finally {
+            event.finish(orders.size(), file);
+        }
+    }
+
+    private File fileFor(LocalDate day) {
+        return new File(dir, PREFIX + day + SUFFIX);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void checkRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start and end dates cannot be null");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+    }
+}
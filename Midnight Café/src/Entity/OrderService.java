@@ -20,6 +20,8 @@ public interface OrderService {
     
     void applyDiscount(Order order, double discountPercent);
     
+    void clearOrder(Order order);
+    
     void confirmOrder(Order order);
    
     void cancelOrder(Order order);
@@ -1,64 +1,177 @@
 package Entity;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
  * OrderServiceImpl class - implements OrderService interface
  * Demonstrates ABSTRACTION, POLYMORPHISM, and EXCEPTION HANDLING
+ * Stock is reserved per unit when items are added and handed back when units
+ * are removed or the order is cleared/cancelled, so several terminals can
+ * sell from the same menu without overselling.
+ * With an OrderJournal attached, every successful command is logged after it
+ * is applied; commands (with their stock reservations) share the journal read
+ * lock and snapshots take the write lock, so a snapshot never captures half of a
+ * command and its stock levels always match its orders. Snapshots that fall due
+ * during a command are only captured in memory under that lock; the journal
+ * writes them to disk on its own thread.
  */
 public class OrderServiceImpl implements OrderService {
-    // VARIABLE LEGEND: allOrders, menuManager
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    // VARIABLE LEGEND: allOrders + nextOrderId (guarded by ordersLock), ordersById, menuManager, branch, kitchenDispatcher, journal, partitions
+    private final Object ordersLock = new Object();
     private List<Order> allOrders;
+    private long nextOrderId = 1;
+    private final Map<Long, Order> ordersById = new ConcurrentHashMap<>();
     private MenuManager menuManager;
+    private final Branch branch; // every order created here belongs to this outlet
+    private volatile KitchenDispatcher kitchenDispatcher; // optional; confirmed orders go to the kitchen
+    private volatile OrderJournal journal; // optional; see attachJournal
+    private final ReentrantReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private volatile OrderPartitionStore partitions; // optional; closed orders of past days live here
     
     // SECTION: Constructors (ENCAPSULATION)
     public OrderServiceImpl() {
-        this.allOrders = new ArrayList<>();
-        this.menuManager = new MenuManager();
+        this(null, null);
     }
     
     public OrderServiceImpl(MenuManager menuManager) {
+        this(menuManager, null);
+    }
+    
+    public OrderServiceImpl(MenuManager menuManager, Branch branch) {
         this.allOrders = new ArrayList<>();
         this.menuManager = menuManager != null ? menuManager : new MenuManager();
+        this.branch = branch != null ? branch : BranchRegistry.getActive().getDefault();
     }
     
     // SECTION: Service methods (ABSTRACTION)
     @Override
     public Order createOrder(Customer customer) {
-        if (customer == null) {
-            throw new IllegalArgumentException("Customer cannot be null");
+        long start = System.nanoTime();
+        try {
+            if (customer == null) {
+                throw new IllegalArgumentException("Customer cannot be null");
+            }
+            Order order = new Order(customer);
+            order.setBranchId(branch.getId());
+            journalLock.readLock().lock();
+            try {
+                synchronized (ordersLock) {
+                    order.setOrderId(nextOrderId++);
+                    allOrders.add(order);
+                }
+                ordersById.put(order.getOrderId(), order);
+                OrderJournal j = journal;
+                if (j != null) {
+                    j.logCreate(order);
+                }
+            } finally {
+                journalLock.readLock().unlock();
+            }
+            snapshotIfDue();
+            return order;
+        } finally {
+            METRICS.recordTime("order.create", start);
         }
-        Order order = new Order(customer);
-        allOrders.add(order);
-        return order;
     }
     
     @Override
     public void addItemToOrder(Order order, MenuItem item, int quantity) {
+        long start = System.nanoTime();
+        try {
+            if (order == null) {
+                throw new IllegalArgumentException("Order cannot be null");
+            }
+            if (item == null) {
+                throw new IllegalArgumentException("Menu item cannot be null");
+            }
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            if (!item.isAvailable()) {
+                throw new IllegalStateException("Item is not available: " + item.getName());
+            }
+        
+            journalLock.readLock().lock();
+            try {
+                if (!item.tryReserve(quantity)) {
+                    throw new IllegalStateException("Not enough stock for " + item.getName() + " (" + item.getStock() + " left)");
+                }
+                try {
+                    order.addReservedItem(item, quantity);
+                } catch (RuntimeException e) {
+                    item.release(quantity);
+                    throw e;
+                }
+                OrderJournal j = journal;
+                if (j != null) {
+                    j.logAddItem(order, item, quantity);
+                }
+            } finally {
+                journalLock.readLock().unlock();
+            }
+            snapshotIfDue();
+            if (item.isStockTracked()) {
+                menuManager.stockChanged(item);
+            }
+            METRICS.add("order.itemsAdded", quantity);
+        } finally {
+            METRICS.recordTime("order.addItem", start);
+        }
+    }
+    
+    @Override
+    public boolean removeItemFromOrder(Order order, String itemName) {
         if (order == null) {
             throw new IllegalArgumentException("Order cannot be null");
         }
-        if (item == null) {
-            throw new IllegalArgumentException("Menu item cannot be null");
-        }
-        if (quantity <= 0) {
-            throw new IllegalArgumentException("Quantity must be positive");
-        }
-        if (!item.isAvailable()) {
-            throw new IllegalStateException("Item is not available: " + item.getName());
+        // UI uses last-added removal; keep behavior simple here
+        journalLock.readLock().lock();
+        try {
+            boolean held = order.holdsStock();
+            MenuItem removed = order.removeLastUnitItem();
+            if (removed == null) {
+                return false;
+            }
+            if (held) {
+                releaseStock(removed, 1);
+            }
+            OrderJournal j = journal;
+            if (j != null) {
+                j.logRemoveUnit(order);
+            }
+        } finally {
+            journalLock.readLock().unlock();
         }
-        
-        order.addItem(item, quantity);
+        snapshotIfDue();
+        return true;
     }
     
     @Override
-    public boolean removeItemFromOrder(Order order, String itemName) {
+    public void clearOrder(Order order) {
         if (order == null) {
             throw new IllegalArgumentException("Order cannot be null");
         }
-        // UI uses last-added removal; keep behavior simple here
-        return order.removeLastUnit();
+        journalLock.readLock().lock();
+        try {
+            List<OrderItem> held = order.holdsStock() ? order.getItems() : Collections.emptyList();
+            order.clear(); // refuses confirmed orders before any stock is handed back
+            releaseAll(held);
+            KitchenDispatcher dispatcher = kitchenDispatcher;
+            if (dispatcher != null) {
+                dispatcher.withdraw(order);
+            }
+            OrderJournal j = journal;
+            if (j != null) {
+                j.logClear(order);
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        snapshotIfDue();
     }
     
     @Override
@@ -70,19 +183,59 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Discount percent must be between 0 and 100");
         }
         
-        order.setDiscountPercent(discountPercent);
+        journalLock.readLock().lock();
+        try {
+            order.setDiscountPercent(discountPercent);
+            OrderJournal j = journal;
+            if (j != null) {
+                j.logDiscount(order, discountPercent);
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        snapshotIfDue();
     }
     
     @Override
     public void confirmOrder(Order order) {
-        if (order == null) {
-            throw new IllegalArgumentException("Order cannot be null");
-        }
-        if (order.isEmpty()) {
-            throw new IllegalStateException("Cannot confirm empty order");
-        }
+        long start = System.nanoTime();
+        try {
+            if (order == null) {
+                throw new IllegalArgumentException("Order cannot be null");
+            }
+            if (order.isEmpty()) {
+                throw new IllegalStateException("Cannot confirm empty order");
+            }
         
-        order.confirmOrder();
+            OrderConfirmEvent event = new OrderConfirmEvent();
+            event.begin();
+            journalLock.readLock().lock();
+            try {
+                order.confirmOrder();
+                OrderJournal j = journal;
+                if (j != null) {
+                    j.logConfirm(order);
+                }
+            } finally {
+                journalLock.readLock().unlock();
+            }
+            METRICS.increment("order.confirmed");
+            KitchenDispatcher dispatcher = kitchenDispatcher;
+            if (dispatcher != null) {
+                dispatcher.dispatch(order);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.lines = order.getItems().size();
+                event.units = order.getTotalItems();
+                event.total = order.getTotalPrice();
+                event.customerTier = order.getCustomer() != null ? order.getCustomer().getCustomerTier() : "";
+                event.commit();
+            }
+            snapshotIfDue();
+        } finally {
+            METRICS.recordTime("order.confirm", start);
+        }
     }
     
     @Override
@@ -90,8 +243,207 @@ public class OrderServiceImpl implements OrderService {
         if (order == null) {
             throw new IllegalArgumentException("Order cannot be null");
         }
-        
-        order.cancelOrder();
+        journalLock.readLock().lock();
+        try {
+            String previous = order.getOrderStatus();
+            KitchenDispatcher dispatcher = kitchenDispatcher;
+            boolean untouched = dispatcher != null && dispatcher.withdraw(order);
+            order.cancelOrder();
+            // Hand stock back only while nothing has been prepared (and only once)
+            boolean release = "pending".equals(previous) || "confirmed".equals(previous)
+                    || "preparing".equals(previous) && untouched;
+            if (release) {
+                releaseAll(order.getItems());
+            }
+            OrderJournal j = journal;
+            if (j != null) {
+                j.logCancel(order, release);
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        snapshotIfDue();
+    }
+    
+    // SECTION: Journal
+    /**
+     * Recovers orders from the journal (latest snapshot + log tail), replaces the
+     * current order list with them and logs every command from now on. A fresh
+     * snapshot is taken right away so the next restart starts from here. Orders
+     * that were in the kitchen go back to the attached dispatcher (see requeueKitchenOrders).
+     */
+    public List<Order> attachJournal(OrderJournal journal) {
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal cannot be null");
+        }
+        journalLock.writeLock().lock();
+        try {
+            List<Order> recovered = journal.recover(menuManager);
+            for (Order order : recovered) {
+                if (order.getBranchId() == null) { // this journal is the branch's own shard
+                    order.setBranchId(branch.getId());
+                }
+            }
+            setAllOrders(recovered);
+            KitchenDispatcher dispatcher = kitchenDispatcher;
+            if (dispatcher != null) {
+                requeueKitchenOrders(dispatcher, recovered);
+            }
+            this.journal = journal;
+            if (journal.getRecordsSinceSnapshot() > 0 || !journal.hasStockLevels()) {
+                writeSnapshot(journal);
+            }
+            return recovered;
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+    
+    public OrderJournal getJournal() {
+        return journal;
+    }
+    
+    // Waits until every command logged so far is on disk (see OrderJournal group commit)
+    public void awaitDurable() {
+        OrderJournal j = journal;
+        if (j != null) {
+            j.awaitDurable(j.getSequence());
+        }
+    }
+    
+    public void snapshotNow() {
+        OrderJournal j = journal;
+        if (j == null) {
+            throw new IllegalStateException("No journal attached");
+        }
+        journalLock.writeLock().lock();
+        try {
+            writeSnapshot(j);
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+    
+    // SECTION: Day partitions
+    public void setPartitionStore(OrderPartitionStore store) {
+        synchronized (ordersLock) {
+            this.partitions = store;
+            if (store != null) { // archived orders keep their ids
+                nextOrderId = Math.max(nextOrderId, store.getMaxOrderId() + 1);
+            }
+        }
+    }
+    
+    public OrderPartitionStore getPartitionStore() {
+        return partitions;
+    }
+    
+    /**
+     * Moves orders placed before the given day that are no longer pending into the
+     * day partitions and drops them from memory (and from the next snapshot), so
+     * the live order list only holds today's work. Returns how many were moved.
+     * Running it twice is harmless: partitions replace orders by id.
+     */
+    public int archiveClosedOrders(java.time.LocalDate before) {
+        OrderPartitionStore store = partitions;
+        if (store == null) {
+            throw new IllegalStateException("No partition store attached");
+        }
+        journalLock.writeLock().lock();
+        try {
+            List<Order> closed = new ArrayList<>();
+            for (Order order : getAllOrders()) {
+                if (order.getOrderDate().toLocalDate().isBefore(before) && !"pending".equals(order.getOrderStatus())) {
+                    closed.add(order);
+                }
+            }
+            if (closed.isEmpty()) {
+                return 0;
+            }
+            store.store(closed);
+            Set<Order> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+            moved.addAll(closed);
+            synchronized (ordersLock) {
+                allOrders.removeIf(moved::contains);
+            }
+            KitchenDispatcher dispatcher = kitchenDispatcher;
+            for (Order order : closed) {
+                ordersById.remove(order.getOrderId(), order);
+                if (dispatcher != null) {
+                    dispatcher.withdraw(order); // a past day's order no longer waits at a station
+                }
+            }
+            OrderJournal j = journal;
+            if (j != null) {
+                writeSnapshot(j);
+            }
+            return closed.size();
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+    
+    private void snapshotIfDue() {
+        OrderJournal j = journal;
+        if (j != null && j.isSnapshotDue() && journalLock.writeLock().tryLock()) {
+            try {
+                if (j.isSnapshotDue()) { // another thread may have just done it
+                    j.startSnapshot(getAllOrders(), trackedStock());
+                }
+            } finally {
+                journalLock.writeLock().unlock();
+            }
+        }
+    }
+    
+    // Callers hold the journal write lock
+    private void writeSnapshot(OrderJournal j) {
+        j.writeSnapshot(getAllOrders(), trackedStock());
+    }
+    
+    private Map<String, Integer> trackedStock() {
+        Map<String, Integer> stock = new HashMap<>();
+        for (MenuItem item : menuManager.getMenuItems()) {
+            if (item.isStockTracked()) {
+                stock.put(item.getName(), item.getStock());
+            }
+        }
+        return stock;
+    }
+    
+    // SECTION: Stock helpers
+    /**
+     * Sets the stock of a menu item (UNLIMITED_STOCK to stop tracking it). Goes
+     * through the journal like an order command, so use this rather than
+     * MenuManager.setStock once a journal is attached.
+     */
+    public void setStock(String itemName, int quantity) {
+        journalLock.readLock().lock();
+        try {
+            menuManager.setStock(itemName, quantity);
+            OrderJournal j = journal;
+            if (j != null) {
+                j.logStock(itemName, quantity);
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        snapshotIfDue();
+    }
+    
+    private void releaseAll(List<OrderItem> lines) {
+        for (OrderItem oi : lines) {
+            releaseStock(oi.getItem(), oi.getQuantity());
+        }
+    }
+    
+    // Orders recovered from a snapshot hold copies without a stock counter, so the live item is looked up by name
+    private void releaseStock(MenuItem item, int quantity) {
+        MenuItem live = menuManager.findMenuItem(item.getName());
+        if (live != null && live.isStockTracked()) {
+            live.release(quantity);
+            menuManager.stockChanged(live);
+        }
     }
     
     @Override
@@ -100,7 +452,7 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Customer cannot be null");
         }
         
-        return allOrders.stream()
+        return getAllOrders().stream()
                 .filter(order -> customer.equals(order.getCustomer()))
                 .collect(Collectors.toList());
     }
@@ -149,11 +501,35 @@ public class OrderServiceImpl implements OrderService {
     
     // SECTION: Additional business logic
     public List<Order> getAllOrders() {
-        return new ArrayList<>(allOrders);
+        synchronized (ordersLock) {
+            return new ArrayList<>(allOrders);
+        }
     }
     
     public void setAllOrders(List<Order> orders) {
-        this.allOrders = orders != null ? new ArrayList<>(orders) : new ArrayList<>();
+        synchronized (ordersLock) {
+            this.allOrders = orders != null ? new ArrayList<>(orders) : new ArrayList<>();
+            ordersById.clear();
+            nextOrderId = 1;
+            for (Order order : allOrders) {
+                nextOrderId = Math.max(nextOrderId, order.getOrderId() + 1);
+            }
+            for (Order order : allOrders) {
+                if (order.getOrderId() == 0) { // saved before orders had ids
+                    order.setOrderId(nextOrderId++);
+                }
+                ordersById.put(order.getOrderId(), order);
+            }
+        }
+    }
+    
+    // Returns null when no order has that id
+    public Order findOrder(long orderId) {
+        return ordersById.get(orderId);
+    }
+    
+    public Branch getBranch() {
+        return branch;
     }
     
     public MenuManager getMenuManager() {
@@ -164,12 +540,38 @@ public class OrderServiceImpl implements OrderService {
         this.menuManager = menuManager;
     }
     
+    public KitchenDispatcher getKitchenDispatcher() {
+        return kitchenDispatcher;
+    }
+    
+    public void setKitchenDispatcher(KitchenDispatcher kitchenDispatcher) {
+        this.kitchenDispatcher = kitchenDispatcher;
+        if (kitchenDispatcher != null) {
+            requeueKitchenOrders(kitchenDispatcher, getAllOrders());
+        }
+    }
+    
+    // Kitchen progress is not journaled: confirmed or preparing orders that this
+    // dispatcher does not hold (e.g. after a restart) start over as "confirmed"
+    private void requeueKitchenOrders(KitchenDispatcher dispatcher, List<Order> orders) {
+        if (dispatcher.isShutDown()) {
+            return;
+        }
+        for (Order order : orders) {
+            String status = order.getOrderStatus();
+            if (("confirmed".equals(status) || "preparing".equals(status)) && !dispatcher.isInKitchen(order)) {
+                order.setOrderStatus("confirmed");
+                dispatcher.dispatch(order);
+            }
+        }
+    }
+    
     public List<Order> getOrdersByStatus(String status) {
         if (status == null || status.trim().isEmpty()) {
             throw new IllegalArgumentException("Status cannot be null or empty");
         }
         
-        return allOrders.stream()
+        return getAllOrders().stream()
                 .filter(order -> status.equals(order.getOrderStatus()))
                 .collect(Collectors.toList());
     }
@@ -182,12 +584,48 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Start date cannot be after end date");
         }
         
-        return allOrders.stream()
+        List<Order> live = getAllOrders().stream()
                 .filter(order -> {
                     java.time.LocalDate orderDate = order.getOrderDate().toLocalDate();
                     return !orderDate.isBefore(startDate) && !orderDate.isAfter(endDate);
                 })
                 .collect(Collectors.toList());
+        OrderPartitionStore store = partitions;
+        if (store == null) {
+            return live;
+        }
+        // Only the partitions of days inside the range are opened
+        Set<Long> liveIds = new HashSet<>();
+        for (Order order : live) {
+            liveIds.add(order.getOrderId());
+        }
+        List<Order> result = new ArrayList<>();
+        for (Order order : store.getOrdersByDateRange(startDate, endDate)) {
+            if (!liveIds.contains(order.getOrderId())) {
+                result.add(order);
+            }
+        }
+        result.addAll(live);
+        return result;
+    }
+    
+    // Sold revenue for whole days; archived days come from partition headers without reading orders
+    public double calculateRevenue(java.time.LocalDate startDate, java.time.LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start and end dates cannot be null");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        double revenue = 0.0;
+        for (Order order : getAllOrders()) {
+            java.time.LocalDate orderDate = order.getOrderDate().toLocalDate();
+            if (!orderDate.isBefore(startDate) && !orderDate.isAfter(endDate) && SalesSummary.isSold(order)) {
+                revenue += order.getTotalPrice();
+            }
+        }
+        OrderPartitionStore store = partitions;
+        return store != null ? revenue + store.getRevenue(startDate, endDate) : revenue;
     }
     
     public Map<String, Object> getCustomerStatistics(Customer customer) {
@@ -0,0 +1,148 @@
+package Entity;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OversellCheck class - stress check for stock reservations and their journal
+ * 64 terminal threads sell one stock-tracked item through a journaled
+ * OrderServiceImpl, adding, removing, clearing, cancelling and confirming at
+ * random until it is sold out. Afterwards the units held by live orders plus
+ * the stock left must equal the stock put on sale, both in memory and after
+ * recovering the journal into a fresh menu. Exits with status 1 on any mismatch.
+ *
+ * Usage: java Entity.OversellCheck [stock] [threads]
+ */
+public class OversellCheck {
+
+    public static void main(String[] args) throws Exception {
+        int stock = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        if (stock <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Stock and threads must be positive");
+        }
+
+        Path dir = Files.createTempDirectory("oversell");
+        String dataFile = new File(dir.toFile(), "data.txt").getPath();
+        String logFile = new File(dir.toFile(), "orders.wal").getPath();
+        String snapshotFile = new File(dir.toFile(), "orders.snap").getPath();
+
+        MenuManager menu = new MenuManager(dataFile);
+        String name = menu.getMenuItems().get(0).getName();
+        OrderServiceImpl service = new OrderServiceImpl(menu);
+        service.setKitchenDispatcher(new KitchenDispatcher()); // cancelling a queued order withdraws its tickets
+        OrderJournal journal = new OrderJournal(logFile, snapshotFile, 200); // small interval: snapshots race the sellers
+        service.attachJournal(journal);
+        service.setStock(name, stock);
+
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> sellers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread seller = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Customer customer = new Customer("Terminal", 30, "Unknown");
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (true) {
+                    Order order = service.createOrder(customer);
+                    try {
+                        for (int n = 1 + random.nextInt(4); n > 0; n--) {
+                            service.addItemToOrder(order, menu.findMenuItem(name), 1 + random.nextInt(3));
+                            if (random.nextInt(5) == 0) {
+                                service.removeItemFromOrder(order, name);
+                            }
+                        }
+                    } catch (IllegalStateException e) { // sold out, or not enough left for this quantity
+                        refused.incrementAndGet();
+                        if (menu.findMenuItem(name).getStock() == 0) {
+                            return;
+                        }
+                    }
+                    int action = random.nextInt(10);
+                    if (action == 0) {
+                        service.clearOrder(order);
+                    } else if (action == 1) {
+                        service.cancelOrder(order);
+                    } else if (!order.isEmpty()) {
+                        service.confirmOrder(order);
+                        if (action == 2) {
+                            service.cancelOrder(order); // still queued in the kitchen: its stock goes back once
+                            service.cancelOrder(order);
+                        }
+                    }
+                }
+            }, "terminal-" + t);
+            seller.start();
+            sellers.add(seller);
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread seller : sellers) {
+            seller.join();
+        }
+        long millis = (System.nanoTime() - began) / 1_000_000;
+
+        int left = menu.findMenuItem(name).getStock();
+        int held = heldUnits(service.getAllOrders(), name);
+        journal.close();
+
+        MenuManager reopened = new MenuManager(dataFile);
+        OrderServiceImpl recoveredService = new OrderServiceImpl(reopened);
+        KitchenDispatcher recoveredKitchen = new KitchenDispatcher();
+        recoveredService.setKitchenDispatcher(recoveredKitchen); // set before attaching, as the terminal does
+        OrderJournal recoveredJournal = new OrderJournal(logFile, snapshotFile, 200);
+        List<Order> recovered = recoveredService.attachJournal(recoveredJournal);
+        int recoveredHeld = heldUnits(recovered, name);
+        int notRequeued = 0;
+        for (Order order : recovered) {
+            if ("confirmed".equals(order.getOrderStatus()) && !recoveredKitchen.isInKitchen(order)) {
+                notRequeued++;
+            }
+        }
+        int recoveredLeft = reopened.findMenuItem(name).getStock();
+        recoveredJournal.close();
+
+        System.out.println(threads + " threads sold '" + name + "' in " + millis + " ms: " + held + " units held, "
+                + left + " left of " + stock + ", " + refused.get() + " adds refused");
+        System.out.println("after recovery: " + recoveredHeld + " units held, " + recoveredLeft + " left");
+
+        List<String> problems = new ArrayList<>();
+        if (left < 0 || held + left != stock) {
+            problems.add("oversold: " + held + " held + " + left + " left != " + stock);
+        }
+        if (recoveredHeld != held || recoveredLeft != left) {
+            problems.add("recovered stock does not match the recovered orders");
+        }
+        if (notRequeued > 0) {
+            problems.add(notRequeued + " recovered confirmed orders are not back in the kitchen");
+        }
+        if (!problems.isEmpty()) {
+            problems.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private static int heldUnits(List<Order> orders, String name) {
+        int units = 0;
+        for (Order order : orders) {
+            if (order.holdsStock()) {
+                for (OrderItem line : order.getItems()) {
+                    if (name.equals(line.getItemName())) {
+                        units += line.getQuantity();
+                    }
+                }
+            }
+        }
+        return units;
+    }
+}
@@ -0,0 +1,73 @@
+package Entity;
+
+import java.io.File;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * PersistenceEvent class - JFR event around café file I/O
+ * Covers menu load/save, DataManager save/load/backup/report and the UI receipt save.
+ * Enable with -XX:StartFlightRecording:settings=default,settings=cafe.jfc
+ */
+@Name("cafe.Persistence")
+@Label("Café Persistence")
+@Category({"Midnight Café", "Persistence"})
+@Description("Reading or writing café data files")
+@StackTrace(false)
+public class PersistenceEvent extends jdk.jfr.Event {
+    
+    @Label("Operation")
+    String operation;
+    
+    @Label("Path")
+    String path;
+    
+    @Label("Records")
+    @Description("Menu items, orders or customers written or read")
+    int records;
+    
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+    
+    public static PersistenceEvent start(String operation, String path) {
+        PersistenceEvent event = new PersistenceEvent();
+        event.operation = operation;
+        event.path = path;
+        event.begin();
+        return event;
+    }
+    
+    // File size is only looked up when the event is actually recorded
+    public void finish(int records, File file) {
+        end();
+        if (shouldCommit()) {
+            this.records = records;
+            this.bytes = file != null && file.isFile() ? file.length() : 0;
+            commit();
+        }
+    }
+    
+    // For byte counts that take I/O to work out; the supplier only runs for recorded events
+    public void finish(int records, java.util.function.LongSupplier bytes) {
+        end();
+        if (shouldCommit()) {
+            this.records = records;
+            this.bytes = bytes.getAsLong();
+            commit();
+        }
+    }
+    
+    public void finish(int records, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.records = records;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
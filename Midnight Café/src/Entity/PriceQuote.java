@@ -0,0 +1,85 @@
+package Entity;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PriceQuote class - immutable result of pricing one version of an order
+ * The UI, receipts, reports and persisted orders all read their numbers from here
+ */
+public final class PriceQuote implements Serializable {
+    private static final long serialVersionUID = 2L; // 2: adjustments stored as an array
+    
+    // VARIABLE LEGEND: subtotal, adjustments, total, orderVersion, ruleSetVersion, priceEpoch, customerRate
+    private final double subtotal;
+    private final Adjustment[] adjustments; // array, not List: every field stays serializable
+    private final double total;
+    private final long orderVersion;
+    private final int ruleSetVersion;
+    private final long priceEpoch;
+    private final double customerRate;
+    
+    PriceQuote(double subtotal, List<Adjustment> adjustments, long orderVersion, int ruleSetVersion,
+               long priceEpoch, double customerRate) {
+        this.subtotal = subtotal;
+        this.adjustments = adjustments.toArray(new Adjustment[0]);
+        double discount = 0.0;
+        for (Adjustment a : adjustments) {
+            discount += a.getAmount();
+        }
+        this.total = subtotal - discount;
+        this.orderVersion = orderVersion;
+        this.ruleSetVersion = ruleSetVersion;
+        this.priceEpoch = priceEpoch;
+        this.customerRate = customerRate;
+    }
+    
+    // SECTION: Getters
+    public double getSubtotal() {
+        return subtotal;
+    }
+    
+    public List<Adjustment> getAdjustments() {
+        return Collections.unmodifiableList(Arrays.asList(adjustments));
+    }
+    
+    public double getDiscountTotal() {
+        return subtotal - total;
+    }
+    
+    public double getTotal() {
+        return total;
+    }
+    
+    // SECTION: Cache key (package-private, used by Order)
+    boolean isCurrent(long orderVersion, int ruleSetVersion, long priceEpoch, double customerRate) {
+        return this.orderVersion == orderVersion
+                && this.ruleSetVersion == ruleSetVersion
+                && this.priceEpoch == priceEpoch
+                && this.customerRate == customerRate;
+    }
+    
+    /**
+     * One discount line of a quote
+     */
+    public static final class Adjustment implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String label;
+        private final double amount;
+        
+        Adjustment(String label, double amount) {
+            this.label = label;
+            this.amount = amount;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+        
+        public double getAmount() {
+            return amount;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package Entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PricingEngine class - single ordered discount pipeline for every order
+ * The rule list is compiled once per rule-set version into a stage-sorted array;
+ * Order caches the resulting PriceQuote against its own version.
+ */
+public final class PricingEngine {
+    public static final double AUTO_LIMIT = 1000;
+    public static final double AUTO_RATE = 10;
+    
+    private static final AtomicInteger VERSIONS = new AtomicInteger();
+    private static final PricingEngine DEFAULT = new PricingEngine(defaultRules());
+    
+    // VARIABLE LEGEND: compiled (current rule set)
+    private volatile RuleSet compiled;
+    
+    // SECTION: Constructors
+    public PricingEngine(List<PricingRule> rules) {
+        setRules(rules);
+    }
+    
+    public static PricingEngine getDefault() {
+        return DEFAULT;
+    }
+    
+    // Tier first, then the automatic and the cashier's extra discount on what is left
+    public static List<PricingRule> defaultRules() {
+        return Arrays.asList(
+                PricingRules.tierDiscount(0),
+                PricingRules.thresholdDiscount(1, AUTO_LIMIT, AUTO_RATE),
+                PricingRules.manualDiscount(1));
+    }
+    
+    // SECTION: Rule set management
+    public void setRules(List<PricingRule> rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules cannot be null");
+        }
+        PricingRule[] sorted = rules.toArray(new PricingRule[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(PricingRule::getStage)); // stable, keeps list order per stage
+        compiled = new RuleSet(sorted, VERSIONS.incrementAndGet());
+    }
+    
+    public List<PricingRule> getRules() {
+        return new ArrayList<>(Arrays.asList(compiled.rules));
+    }
+    
+    public int getRuleSetVersion() {
+        return compiled.version;
+    }
+    
+    // SECTION: Pricing
+    public PriceQuote price(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        RuleSet set = compiled;
+        double subtotal = order.getSubtotal();
+        List<PriceQuote.Adjustment> adjustments = new ArrayList<>(set.rules.length);
+        
+        double stageBase = subtotal;
+        double stageDiscount = 0.0;
+        int stage = set.rules.length > 0 ? set.rules[0].getStage() : 0;
+        for (PricingRule rule : set.rules) {
+            if (rule.getStage() != stage) {
+                stageBase = Math.max(0.0, stageBase - stageDiscount);
+                stageDiscount = 0.0;
+                stage = rule.getStage();
+            }
+            double discount = Math.min(rule.calculateDiscount(order, stageBase), stageBase - stageDiscount);
+            if (discount > 0) {
+                adjustments.add(new PriceQuote.Adjustment(rule.getLabel(), discount));
+                stageDiscount += discount;
+            }
+        }
+        
+        Customer customer = order.getCustomer();
+        return new PriceQuote(subtotal, adjustments, order.getVersion(), set.version,
+                              MenuItem.getPriceEpoch(), customer != null ? customer.getDiscountRate() : 0.0);
+    }
+    
+    private static final class RuleSet {
+        final PricingRule[] rules;
+        final int version;
+        
+        RuleSet(PricingRule[] rules, int version) {
+            this.rules = rules;
+            this.version = version;
+        }
+    }
+}
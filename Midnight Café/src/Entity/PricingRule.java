@@ -0,0 +1,15 @@
+package Entity;
+
+/**
+ * PricingRule interface - one discount step of the PricingEngine pipeline
+ * Rules in the same stage are all computed on the amount entering that stage;
+ * the next stage starts from what is left after the previous one.
+ */
+public interface PricingRule {
+    
+    int getStage();
+    
+    String getLabel();
+    
+    double calculateDiscount(Order order, double base);
+}
@@ -0,0 +1,75 @@
+package Entity;
+
+/**
+ * PricingRules class - factory for the built-in pricing rules
+ */
+public final class PricingRules {
+    
+    // Private constructor to prevent instantiation (utility class)
+    private PricingRules() {}
+    
+    // Loyalty tier discount, taken from the customer's cached tier
+    public static PricingRule tierDiscount(int stage) {
+        return new SimpleRule(stage, "Tier Discount") {
+            @Override
+            public double calculateDiscount(Order order, double base) {
+                Customer customer = order.getCustomer();
+                return customer != null ? base * customer.getDiscountRate() : 0.0;
+            }
+        };
+    }
+    
+    // Automatic discount once the amount reaches a threshold
+    public static PricingRule thresholdDiscount(int stage, double limit, double ratePercent) {
+        return new SimpleRule(stage, String.format("Auto Discount(%.0f%%)", ratePercent)) {
+            @Override
+            public double calculateDiscount(Order order, double base) {
+                return base >= limit ? base * ratePercent / 100.0 : 0.0;
+            }
+        };
+    }
+    
+    // Extra discount entered by the cashier (Order.setDiscountPercent)
+    public static PricingRule manualDiscount(int stage) {
+        return new SimpleRule(stage, "Extra Discount") {
+            @Override
+            public double calculateDiscount(Order order, double base) {
+                return base * order.getDiscountPercent() / 100.0;
+            }
+        };
+    }
+    
+    // Happy-hour style discount using each item's own calculateDiscount override
+    public static PricingRule itemDiscount(int stage, String label, double discountPercent) {
+        return new SimpleRule(stage, label) {
+            @Override
+            public double calculateDiscount(Order order, double base) {
+                double discount = 0.0;
+                for (OrderItem oi : order.getItems()) {
+                    discount += oi.getItem().calculateDiscount(discountPercent) * oi.getQuantity();
+                }
+                return Math.min(discount, base);
+            }
+        };
+    }
+    
+    private abstract static class SimpleRule implements PricingRule {
+        private final int stage;
+        private final String label;
+        
+        SimpleRule(int stage, String label) {
+            this.stage = stage;
+            this.label = label;
+        }
+        
+        @Override
+        public int getStage() {
+            return stage;
+        }
+        
+        @Override
+        public String getLabel() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package Entity;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * SalesSummary class - mergeable aggregate of sold orders
+ * Built from one shard's orders, then combined with other shards' summaries via
+ * merge(); merging is associative and commutative, so branch summaries can be
+ * computed in any order and in parallel. Only totals travel between shards:
+ * order count, revenue, units per item and spend per customer.
+ * Orders count as sold once confirmed (including preparing/ready/completed).
+ */
+public final class SalesSummary {
+    public static final SalesSummary EMPTY = new SalesSummary(0, 0.0,
+            Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+    // VARIABLE LEGEND: orderCount, revenue, unitsByItem, spendByCustomer (key name|phone), customerNames
+    private final long orderCount;
+    private final double revenue;
+    private final Map<String, Long> unitsByItem;
+    private final Map<String, Double> spendByCustomer;
+    private final Map<String, String> customerNames;
+
+    private SalesSummary(long orderCount, double revenue, Map<String, Long> unitsByItem,
+                         Map<String, Double> spendByCustomer, Map<String, String> customerNames) {
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+        this.unitsByItem = unitsByItem;
+        this.spendByCustomer = spendByCustomer;
+        this.customerNames = customerNames;
+    }
+
+    public static boolean isSold(Order order) {
+        String status = order.getOrderStatus();
+        return "confirmed".equals(status) || "preparing".equals(status)
+                || "ready".equals(status) || "completed".equals(status);
+    }
+
+    // SECTION: Building and merging
+    public static SalesSummary of(Collection<Order> orders) {
+        if (orders == null) {
+            throw new IllegalArgumentException("Orders cannot be null");
+        }
+        long count = 0;
+        double revenue = 0.0;
+        Map<String, Long> units = new HashMap<>();
+        Map<String, Double> spend = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+        for (Order order : orders) {
+            if (!isSold(order)) {
+                continue;
+            }
+            double total = order.getTotalPrice();
+            count++;
+            revenue += total;
+            for (OrderItem oi : order.getItems()) {
+                units.merge(oi.getItemName(), (long) oi.getQuantity(), Long::sum);
+            }
+            Customer c = order.getCustomer();
+            if (c != null && !c.getName().isEmpty()) { // walk-ins without a name are not ranked
+                String key = c.getName() + "|" + c.getPhoneNumber();
+                spend.merge(key, total, Double::sum);
+                names.putIfAbsent(key, c.getName());
+            }
+        }
+        return new SalesSummary(count, revenue, units, spend, names);
+    }
+
+    // Sold-order count and revenue only (e.g. from partition headers); adds nothing to the rankings
+    public static SalesSummary ofTotals(long orderCount, double revenue) {
+        if (orderCount < 0) {
+            throw new IllegalArgumentException("Order count cannot be negative");
+        }
+        return new SalesSummary(orderCount, revenue,
+                Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    public SalesSummary merge(SalesSummary other) {
+        if (other == null || other == EMPTY) {
+            return this;
+        }
+        if (this == EMPTY) {
+            return other;
+        }
+        Map<String, Long> units = new HashMap<>(unitsByItem);
+        other.unitsByItem.forEach((k, v) -> units.merge(k, v, Long::sum));
+        Map<String, Double> spend = new HashMap<>(spendByCustomer);
+        other.spendByCustomer.forEach((k, v) -> spend.merge(k, v, Double::sum));
+        Map<String, String> names = new HashMap<>(customerNames);
+        other.customerNames.forEach(names::putIfAbsent);
+        return new SalesSummary(orderCount + other.orderCount, revenue + other.revenue, units, spend, names);
+    }
+
+    // SECTION: Results
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public double getAverageOrderValue() {
+        return orderCount == 0 ? 0.0 : revenue / orderCount;
+    }
+
+    public long getUnitsSold(String itemName) {
+        return unitsByItem.getOrDefault(itemName, 0L);
+    }
+
+    // Item name -> units, best sellers first
+    public List<Map.Entry<String, Long>> topItems(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return unitsByItem.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(e -> new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    // Customer name -> spend, biggest spenders first
+    public List<Map.Entry<String, Double>> topCustomers(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return spendByCustomer.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(e -> new AbstractMap.SimpleImmutableEntry<>(customerNames.get(e.getKey()), e.getValue()))
+                .collect(Collectors.toList());
+    }
+}
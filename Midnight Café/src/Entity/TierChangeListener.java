@@ -0,0 +1,9 @@
+package Entity;
+
+/**
+ * TierChangeListener interface - notified when a customer moves between loyalty tiers
+ */
+public interface TierChangeListener {
+    
+    void tierChanged(Customer customer, CustomerTier oldTier, CustomerTier newTier);
+}
@@ -0,0 +1,148 @@
+package Entity;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TierPolicy class - configurable loyalty tiers (thresholds and discount rates)
+ * File format is one tier per line: name|minSpent|discountRate, e.g. Gold|5000|0.15
+ * Customers cache their tier against the policy version, so swapping the active
+ * policy invalidates every cached tier without touching the customers.
+ */
+public class TierPolicy {
+    public static final String DEFAULT_TIERS_FILE = "Data/tiers.txt";
+
+    private static final AtomicInteger VERSIONS = new AtomicInteger();
+    private static final List<TierChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private static volatile TierPolicy active = defaults();
+
+    // VARIABLE LEGEND: tiers (sorted by minSpent, highest first), version
+    private final CustomerTier[] tiers;
+    private final int version;
+
+    // SECTION: Constructors
+    public TierPolicy(List<CustomerTier> tiers) {
+        if (tiers == null || tiers.isEmpty()) {
+            throw new IllegalArgumentException("Tier policy needs at least one tier");
+        }
+        List<CustomerTier> sorted = new ArrayList<>(tiers);
+        sorted.sort((t1, t2) -> Double.compare(t2.getMinSpent(), t1.getMinSpent()));
+        if (sorted.get(sorted.size() - 1).getMinSpent() > 0) {
+            sorted.add(new CustomerTier("Regular", 0, 0.0)); // everyone belongs to some tier
+        }
+        this.tiers = sorted.toArray(new CustomerTier[0]);
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    public static TierPolicy defaults() {
+        return new TierPolicy(Arrays.asList(
+                new CustomerTier("Gold", 5000, 0.15),
+                new CustomerTier("Silver", 2000, 0.10),
+                new CustomerTier("Bronze", 500, 0.05),
+                new CustomerTier("Regular", 0, 0.0)));
+    }
+
+    // SECTION: Active policy
+    public static TierPolicy getActive() {
+        return active;
+    }
+
+    public static void setActive(TierPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Tier policy cannot be null");
+        }
+        active = policy;
+    }
+
+    // SECTION: Tier lookup
+    public CustomerTier tierFor(double totalSpent) {
+        for (CustomerTier tier : tiers) {
+            if (totalSpent >= tier.getMinSpent()) {
+                return tier;
+            }
+        }
+        return tiers[tiers.length - 1];
+    }
+
+    public List<CustomerTier> getTiers() {
+        return Collections.unmodifiableList(Arrays.asList(tiers));
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    // SECTION: Tier change events
+    public static void addTierChangeListener(TierChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    public static void removeTierChangeListener(TierChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    static void fireTierChange(Customer customer, CustomerTier oldTier, CustomerTier newTier) {
+        for (TierChangeListener listener : listeners) {
+            try {
+                listener.tierChanged(customer, oldTier, newTier);
+            } catch (RuntimeException e) {
+                System.err.println("Tier change listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // SECTION: FILE I/O methods with EXCEPTION HANDLING
+    public static TierPolicy loadFromFile(String path) {
+        File file = new File(path);
+        if (!file.exists()) {
+            TierPolicy policy = defaults();
+            policy.saveToFile(path);
+            return policy;
+        }
+
+        List<CustomerTier> loaded = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\|");
+                if (parts.length >= 3) {
+                    loaded.add(new CustomerTier(parts[0],
+                            Double.parseDouble(parts[1].trim()),
+                            Double.parseDouble(parts[2].trim())));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading tier policy: " + e.getMessage());
+            return defaults();
+        } catch (IllegalArgumentException e) { // includes NumberFormatException
+            System.err.println("Error parsing tier policy: " + e.getMessage());
+            return defaults();
+        }
+        return loaded.isEmpty() ? defaults() : new TierPolicy(loaded);
+    }
+
+    public void saveToFile(String path) {
+        File parent = new File(path).getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+            writer.println("# name|minSpent|discountRate");
+            for (CustomerTier tier : tiers) {
+                writer.println(tier.getName() + "|" + tier.getMinSpent() + "|" + tier.getDiscountRate());
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving tier policy: " + e.getMessage());
+            throw new RuntimeException("Failed to save tier policy", e);
+        }
+    }
+}
@@ -1,22 +1,28 @@
 package Frame;
 
 import Entity.*;
+import Server.OrderApiServer;
 
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 public class MainFrame extends JFrame implements ActionListener {
 
-    private JPanel mainPanel, menuPanel, orderPanel, customerPanel, topPanel;
+    private JPanel mainPanel, menuPanel, menuCard, orderPanel, customerPanel, topPanel;
+    private JLabel lbStatus;
     private JTextArea taOrder, taReceipt;
-    private JTextField tfName, tfDiscount, tfCash;
-    private JButton btRemove, btClear, btConfirm, btTotal, btDiscount;
+    private JTextField tfName, tfDiscount, tfCash, tfSearch;
+    private JButton btRemove, btClear, btConfirm, btTotal, btDiscount, btReport;
 
     private JRadioButton rbMale, rbFemale, rbMonkey;
     private ButtonGroup bgGender;
@@ -25,15 +31,18 @@ public class MainFrame extends JFrame implements ActionListener {
     private Customer customer;
     private MenuManager menuManager;
     private OrderService orderService;
+    private transient OrderApiServer apiServer;
+    private transient Branch branch;
+    private final transient MenuSearchIndex menuIndex = new MenuSearchIndex();
+    private final transient java.util.Map<String, JButton> menuButtons = new java.util.LinkedHashMap<>();
+    // scaled menu pictures by image file; a new menu version only decodes pictures it has not shown yet
+    private final transient java.util.Map<String, ImageIcon> menuIcons = new java.util.concurrent.ConcurrentHashMap<>();
 
     private final Color BG = new Color(18,18,25);
     private final Color CARD = new Color(28,28,40);
     private final Color ACCENT = new Color(155,89,255);
     private final Color TEXT = new Color(230,230,240);
 
-    private final double AUTO_LIMIT = 1000;
-    private final double AUTO_RATE = 10;
-
     public MainFrame() {
 
         super("Midnight Café — Where Nights Taste Better");
@@ -46,7 +55,6 @@ public class MainFrame extends JFrame implements ActionListener {
         mainPanel.setBorder(new EmptyBorder(15,15,15,15));
         add(mainPanel);
 
-        initServices();
         buildTopPanel();
         buildMenuPanel();
         buildOrderPanel();
@@ -56,16 +64,116 @@ public class MainFrame extends JFrame implements ActionListener {
         mainPanel.add(menuPanel, BorderLayout.WEST);
         mainPanel.add(orderPanel, BorderLayout.CENTER);
         mainPanel.add(customerPanel, BorderLayout.EAST);
+
+        addWindowListener(new WindowAdapter(){
+            public void windowOpened(WindowEvent e){ StartupBenchmark.mark("painted"); }
+            public void windowClosing(WindowEvent e){ shutdownServices(); }
+        });
+        initServices();
     }
 
+    // ================= SERVICES =================
+    // The window paints its empty layout first; menu, customers and orders load
+    // in parallel and are handed to the EDT together once all of them are done
     private void initServices() {
+        MetricsRegistry.getDefault().registerMBean();
+        MetricsRegistry.getDefault().startReporting("Data/metrics.json", 60);
+
+        // This terminal's outlet: -Dcafe.branch=<id>, otherwise the first one in branches.txt
+        BranchRegistry.setActive(BranchRegistry.loadFromFile(BranchRegistry.DEFAULT_BRANCHES_FILE));
+        branch = BranchRegistry.getActive().resolve(System.getProperty("cafe.branch"));
+        new File(branch.getDataDir()).mkdirs();
+
+        CompletableFuture<Void> tiers = CompletableFuture.runAsync(() ->
+                TierPolicy.setActive(TierPolicy.loadFromFile(TierPolicy.DEFAULT_TIERS_FILE)));
+        CompletableFuture<MenuManager> menu = CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            MenuManager m = new MenuManager(branch.file("data.txt")); // binary data.bin unless data.txt changed
+            StartupBenchmark.phase("menu", start);
+            return m;
+        });
+        CompletableFuture<List<Customer>> customers = CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            List<Customer> list = DataManager.loadCustomers();
+            StartupBenchmark.phase("customers", start);
+            return list;
+        });
+        // Journal replay needs menu items by name and the tier policy for re-pricing
+        CompletableFuture<OrderServiceImpl> orders = menu.thenCombineAsync(tiers, (m, ignored) -> {
+            long start = System.nanoTime();
+            OrderServiceImpl service = new OrderServiceImpl(m, branch);
+            service.setKitchenDispatcher(new KitchenDispatcher()); // confirmed orders queue at the stations
+            // recovers orders left by a crash or power cut
+            service.attachJournal(new OrderJournal(branch.file("orders.wal"), branch.file("orders.snap"),
+                    OrderJournal.DEFAULT_SNAPSHOT_EVERY));
+            // Yesterday's finished orders move to day partitions, keeping the live set small
+            OrderPartitionStore partitions = new OrderPartitionStore(branch.file("orders"));
+            service.setPartitionStore(partitions);
+            service.archiveClosedOrders(LocalDate.now());
+            // Months past the horizon are compressed in the background, off the startup path
+            partitions.startArchiving(OrderPartitionStore.DEFAULT_ARCHIVE_AFTER_DAYS, 24);
+            StartupBenchmark.phase("orders", start);
+            return service;
+        });
+
+        CompletableFuture.allOf(customers, orders).whenComplete((ignored, error) ->
+            SwingUtilities.invokeLater(() -> {
+                if(error != null){
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    lbStatus.setText("Startup failed");
+                    JOptionPane.showMessageDialog(this, cause.getMessage());
+                    return;
+                }
+                servicesReady(orders.join(), customers.join());
+            }));
+    }
+
+    private void servicesReady(OrderServiceImpl service, List<Customer> knownCustomers) {
+        menuManager = service.getMenuManager();
+        orderService = service;
+        customer = new Customer();
+        currentOrder = orderService.createOrder(customer);
+
+        populateMenu();
+        refreshSummary();
+        lbStatus.setText(branch.getName()+"  |  "+menuManager.getAvailableItemsCount()+" items  |  "
+                +knownCustomers.size()+" customers  |  "
+                +service.getAllOrders().size()+" orders");
+        startApiServer(service);
+        // Queued behind the repaint of the new menu buttons
+        SwingUtilities.invokeLater(StartupBenchmark::markInteractive);
+    }
+
+    // Runs on the EDT just before EXIT_ON_CLOSE ends the JVM
+    private void shutdownServices() {
+        if(!(orderService instanceof OrderServiceImpl)) return; // still loading
+        OrderServiceImpl service = (OrderServiceImpl) orderService;
+        KitchenDispatcher kitchen = service.getKitchenDispatcher();
+        if(kitchen != null){
+            List<Order> unfinished = kitchen.shutdown();
+            if(!unfinished.isEmpty()){
+                System.out.println("Kitchen closed with " + unfinished.size() + " orders still in preparation");
+            }
+        }
+        OrderJournal journal = service.getJournal();
+        if(journal != null){
+            journal.close();
+        }
+    }
+
+    // Tablets and the kiosk talk to the same order service when -Dcafe.api.port is set
+    private void startApiServer(OrderServiceImpl service) {
+        String port = System.getProperty("cafe.api.port");
+        if (port == null || port.isBlank()) {
+            return;
+        }
         try {
-            menuManager = new MenuManager();
-            orderService = new OrderServiceImpl(menuManager);
-            customer = new Customer();
-            currentOrder = orderService.createOrder(customer);
-        } catch(Exception e){
-            JOptionPane.showMessageDialog(this, e.getMessage());
+            apiServer = new OrderApiServer(service);
+            apiServer.start(Integer.parseInt(port.trim()));
+            System.out.println("Order API listening on port " + apiServer.getPort());
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error starting order API: " + e.getMessage());
+            apiServer = null;
         }
     }
 
@@ -82,10 +190,14 @@ public class MainFrame extends JFrame implements ActionListener {
         title.setForeground(Color.WHITE);
         title.setFont(new Font("Segoe UI", Font.BOLD, 24));
 
+        lbStatus = new JLabel("Loading...");
+        lbStatus.setForeground(TEXT);
+
         JPanel left = new JPanel(new FlowLayout(FlowLayout.LEFT,12,0));
         left.setOpaque(false);
         left.add(logo);
         left.add(title);
+        left.add(lbStatus);
 
         JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT,12,0));
         btnPanel.setOpaque(false);
@@ -93,11 +205,13 @@ public class MainFrame extends JFrame implements ActionListener {
         btRemove = makeButton("Remove");
         btClear = makeButton("Clear");
         btTotal = makeButton("Show Total");
+        btReport = makeButton("Report");
         btConfirm = makeAccentButton("Confirm");
 
         btnPanel.add(btRemove);
         btnPanel.add(btClear);
         btnPanel.add(btTotal);
+        btnPanel.add(btReport);
         btnPanel.add(btConfirm);
 
         topPanel.add(left, BorderLayout.WEST);
@@ -107,20 +221,52 @@ public class MainFrame extends JFrame implements ActionListener {
     // ================= MENU =================
     private void buildMenuPanel() {
 
-        JPanel menuCard = makeCard("Menu");
+        menuCard = makeCard("Menu");
         menuCard.setLayout(new GridLayout(0,2,18,18));
+        menuCard.add(makeLabel("Loading menu..."));
+
+        JScrollPane sp = new JScrollPane(menuCard);
+        sp.setBorder(null);
+        sp.getVerticalScrollBar().setUnitIncrement(22);
+
+        // Filters on every keystroke: name prefixes and description words
+        tfSearch = new JTextField();
+        tfSearch.setBackground(CARD);
+        tfSearch.setForeground(TEXT);
+        tfSearch.setCaretColor(TEXT);
+        tfSearch.setBorder(new CompoundBorder(new LineBorder(ACCENT,1), new EmptyBorder(6,8,6,8)));
+        tfSearch.setToolTipText("Search the menu");
+        tfSearch.getDocument().addDocumentListener(new DocumentListener(){
+            public void insertUpdate(DocumentEvent e){ filterMenu(); }
+            public void removeUpdate(DocumentEvent e){ filterMenu(); }
+            public void changedUpdate(DocumentEvent e){ filterMenu(); }
+        });
+
+        JPanel searchRow = new JPanel(new BorderLayout(8,0));
+        searchRow.setBackground(BG);
+        searchRow.setBorder(new EmptyBorder(0,0,10,0));
+        searchRow.add(makeLabel("Search"), BorderLayout.WEST);
+        searchRow.add(tfSearch);
 
-        List<Entity.MenuItem> items = menuManager.getAvailableItems();
+        menuPanel = new JPanel(new BorderLayout());
+        menuPanel.setBackground(BG);
+        menuPanel.add(searchRow, BorderLayout.NORTH);
+        menuPanel.add(sp);
+        menuPanel.setPreferredSize(new Dimension(450,0));
+    }
 
-        for(Entity.MenuItem item : items){
+    // Buttons go in without pictures; images are decoded and scaled in the background
+    private void populateMenu() {
 
-            String imgName = item.getName().toLowerCase().replace(" ", "_") + ".jpg";
-            ImageIcon icon = loadIcon(imgName, 95, 85);
+        menuIndex.sync(menuManager);
+        menuButtons.clear();
+        List<JButton> missing = new ArrayList<>(); // buttons whose picture is not cached yet
+
+        for(Entity.MenuItem item : menuManager.getAvailableItems()){
 
             JButton b = new JButton(
                     "<html><center><b>"+item.getName()+"</b><br>"
-                            + item.getPrice()+" TK</center></html>",
-                    icon
+                            + item.getPrice()+" TK</center></html>"
             );
 
             b.setHorizontalTextPosition(SwingConstants.CENTER);
@@ -133,16 +279,50 @@ public class MainFrame extends JFrame implements ActionListener {
             b.putClientProperty("menuItem", item);
             b.addActionListener(this);
 
-            menuCard.add(b);
+            ImageIcon cached = menuIcons.get(imageFile(item));
+            if(cached != null) b.setIcon(cached);
+            else missing.add(b);
+
+            menuButtons.put(item.getName(), b);
         }
+        filterMenu();
+        if(missing.isEmpty()) return;
+
+        Thread loader = new Thread(() -> {
+            for(JButton b : missing){
+                String imgName = imageFile((Entity.MenuItem)b.getClientProperty("menuItem"));
+                ImageIcon icon = menuIcons.get(imgName); // an earlier loader may have got there first
+                if(icon == null){
+                    icon = loadIcon(imgName, 95, 85); // waits until the scaled pixels exist
+                    if(icon == null) continue;
+                    menuIcons.put(imgName, icon);
+                }
+                ImageIcon shown = icon;
+                SwingUtilities.invokeLater(() -> b.setIcon(shown));
+            }
+        }, "menu-images");
+        loader.setDaemon(true);
+        loader.start();
+    }
 
-        JScrollPane sp = new JScrollPane(menuCard);
-        sp.setBorder(null);
-        sp.getVerticalScrollBar().setUnitIncrement(22);
+    // Shows the buttons of the items matching the search box; buttons are reused, never rebuilt
+    private void filterMenu() {
 
-        menuPanel = new JPanel(new BorderLayout());
-        menuPanel.add(sp);
-        menuPanel.setPreferredSize(new Dimension(450,0));
+        if(menuManager == null) return;
+        if(menuIndex.sync(menuManager)){
+            populateMenu(); // the menu itself changed
+            return;
+        }
+        menuCard.removeAll();
+        for(Entity.MenuItem item : menuIndex.search(tfSearch.getText())){
+            JButton b = menuButtons.get(item.getName());
+            if(b != null) menuCard.add(b);
+        }
+        if(menuCard.getComponentCount() == 0){
+            menuCard.add(makeLabel("No items match"));
+        }
+        menuCard.revalidate();
+        menuCard.repaint();
     }
 
     // ================= ORDER =================
@@ -281,24 +461,26 @@ public class MainFrame extends JFrame implements ActionListener {
     }
 
     // ================= DISCOUNT =================
-    private double getAutoDiscount(double total){
-        if(total >= AUTO_LIMIT) return total * AUTO_RATE / 100.0;
-        return 0;
-    }
-
-    private double getExtraDiscount(double total){
+    // Pushes the extra discount field into the order; pricing itself lives in PricingEngine
+    private boolean applyExtraDiscount(){
+        String text = tfDiscount.getText().trim();
         try{
-            double p = Double.parseDouble(tfDiscount.getText());
-            return total * p / 100.0;
-        }catch(Exception e){ return 0; }
+            double p = text.isEmpty() ? 0 : Double.parseDouble(text);
+            orderService.applyDiscount(currentOrder, p);
+            return true;
+        }catch(Exception e){
+            JOptionPane.showMessageDialog(this,"Invalid discount: "+e.getMessage());
+            return false;
+        }
     }
 
     private void refreshSummary(){
 
-        double subtotal = currentOrder.getTotalPrice();
-        double autoDis = getAutoDiscount(subtotal);
-        double extraDis = getExtraDiscount(subtotal);
-        double payable = subtotal - autoDis - extraDis;
+        if(currentOrder == null){
+            taOrder.setText("Loading...");
+            return;
+        }
+        PriceQuote quote = currentOrder.getQuote();
 
         taOrder.setText("Items:\n\n");
         for(OrderItem it : currentOrder.getItems()){
@@ -308,15 +490,19 @@ public class MainFrame extends JFrame implements ActionListener {
         }
 
         taOrder.append("\n-----------------------------\n");
-        taOrder.append("Subtotal: "+subtotal+" TK\n");
-        if(autoDis>0) taOrder.append("Auto Discount(10%): -"+autoDis+" TK\n");
-        if(extraDis>0) taOrder.append("Extra Discount: -"+extraDis+" TK\n");
-        taOrder.append("Payable: "+payable+" TK");
+        taOrder.append("Subtotal: "+quote.getSubtotal()+" TK\n");
+        for(PriceQuote.Adjustment a : quote.getAdjustments()){
+            taOrder.append(a.getLabel()+": -"+a.getAmount()+" TK\n");
+        }
+        taOrder.append("Payable: "+quote.getTotal()+" TK");
     }
 
     // ================= FILE SAVE =================
     private void saveData(String receiptText, double payable){
 
+        String[] files = {"data/customers.txt", "data/orders.txt", "data/report.txt"};
+        PersistenceEvent event = PersistenceEvent.start("ui.saveData", "data/");
+        long before = event.isEnabled() ? totalSize(files) : 0; // sizes are only read while JFR records the event
         try{
             File dir = new File("data");
             if(!dir.exists()) dir.mkdir();
@@ -340,13 +526,47 @@ public class MainFrame extends JFrame implements ActionListener {
 
         }catch(Exception e){
             JOptionPane.showMessageDialog(this,"File Save Error!");
+        }finally{
+            event.finish(1, () -> totalSize(files) - before);
         }
     }
 
+    // ================= REPORT =================
+    // Last 30 days from the partition headers; days still held live are archived first so they count
+    private void generateReport(){
+
+        OrderServiceImpl service = (OrderServiceImpl) orderService;
+        LocalDate today = LocalDate.now();
+        btReport.setEnabled(false);
+        CompletableFuture.runAsync(() -> {
+            service.archiveClosedOrders(today);
+            DataManager.generateReport(service.getPartitionStore(), today.minusDays(30), today.minusDays(1),
+                    DataManager.loadCustomers());
+        }).whenComplete((ignored, error) ->
+            SwingUtilities.invokeLater(() -> {
+                btReport.setEnabled(true);
+                if(error != null){
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    JOptionPane.showMessageDialog(this, "Report Error: "+cause.getMessage());
+                    return;
+                }
+                JOptionPane.showMessageDialog(this, "Report saved to Data/reports.txt");
+            }));
+    }
+
+    private long totalSize(String[] paths){
+        long total = 0;
+        for(String p : paths) total += new File(p).length();
+        return total;
+    }
+
     // ================= EVENTS =================
     public void actionPerformed(ActionEvent e){
 
+        if(orderService == null) return; // still loading
+
         if(e.getSource()==btDiscount){
+            applyExtraDiscount();
             refreshSummary();
         }
 
@@ -355,25 +575,31 @@ public class MainFrame extends JFrame implements ActionListener {
             refreshSummary();
         }
 
+        else if(e.getSource()==btReport){
+            generateReport();
+        }
+
         else if(e.getSource()==btClear){
-            currentOrder.clear();
+            orderService.clearOrder(currentOrder);
             refreshSummary();
         }
 	
 	else if(e.getSource() == btTotal) {
 
-    double subtotal = currentOrder.getTotalPrice();
-    double autoDis = getAutoDiscount(subtotal);
-    double extraDis = getExtraDiscount(subtotal);
-    double payable = subtotal - autoDis - extraDis;
+    if(!applyExtraDiscount()) return;
+    refreshSummary();
+    PriceQuote quote = currentOrder.getQuote();
+
+    StringBuilder sb = new StringBuilder("Subtotal: " + quote.getSubtotal() + " TK\n");
+    for(PriceQuote.Adjustment a : quote.getAdjustments()){
+        sb.append(a.getLabel()).append(": ").append(a.getAmount()).append(" TK\n");
+    }
 
     JOptionPane.showMessageDialog(
         this,
-        "Subtotal: " + subtotal + " TK\n"
-      + "Auto Discount: " + autoDis + " TK\n"
-      + "Extra Discount: " + extraDis + " TK\n"
+        sb
       + "----------------------\n"
-      + "Payable: " + payable + " TK",
+      + "Payable: " + quote.getTotal() + " TK",
         "ZenOrder Total",
         JOptionPane.INFORMATION_MESSAGE
     );
@@ -387,12 +613,12 @@ public class MainFrame extends JFrame implements ActionListener {
                 return;
             }
 
+            if(!applyExtraDiscount()) return;
+            refreshSummary();
             taReceipt.setText("");
 
-            double subtotal = currentOrder.getTotalPrice();
-            double autoDis = getAutoDiscount(subtotal);
-            double extraDis = getExtraDiscount(subtotal);
-            double payable = subtotal - autoDis - extraDis;
+            PriceQuote quote = currentOrder.getQuote();
+            double payable = quote.getTotal();
 
             String gender = rbMale.isSelected()?"Male": rbFemale.isSelected()?"Female":"Monkey";
             int orderNo = new Random().nextInt(9000)+1000;
@@ -400,6 +626,7 @@ public class MainFrame extends JFrame implements ActionListener {
             taReceipt.append("        MIDNIGHT CAFÉ\n");
 	    taReceipt.append("   Where Nights Taste Better\n");
 	    taReceipt.append("       Powered By Aninda\n");
+	    taReceipt.append("  "+branch.getAddress()+"\n");
             taReceipt.append("--------------------------------\n");
             taReceipt.append("Order No: "+orderNo+"\n");
             taReceipt.append("Date: "+LocalDate.now()+"\n");
@@ -412,9 +639,10 @@ public class MainFrame extends JFrame implements ActionListener {
             }
 
             taReceipt.append("--------------------------------\n");
-            taReceipt.append("Subtotal: "+subtotal+" TK\n");
-            if(autoDis>0) taReceipt.append("Auto Discount: -"+autoDis+" TK\n");
-            if(extraDis>0) taReceipt.append("Extra Discount: -"+extraDis+" TK\n");
+            taReceipt.append("Subtotal: "+quote.getSubtotal()+" TK\n");
+            for(PriceQuote.Adjustment a : quote.getAdjustments()){
+                taReceipt.append(a.getLabel()+": -"+a.getAmount()+" TK\n");
+            }
             taReceipt.append("Payable: "+payable+" TK\n");
 
             double cash = Double.parseDouble(tfCash.getText());
@@ -430,12 +658,20 @@ public class MainFrame extends JFrame implements ActionListener {
             JButton b=(JButton)e.getSource();
             Entity.MenuItem item=(Entity.MenuItem)b.getClientProperty("menuItem");
             if(item!=null){
-                orderService.addItemToOrder(currentOrder,item,1);
+                try{
+                    orderService.addItemToOrder(currentOrder,item,1);
+                }catch(IllegalStateException ex){
+                    JOptionPane.showMessageDialog(this, ex.getMessage());
+                }
                 refreshSummary();
             }
         }
     }
 
+    private static String imageFile(Entity.MenuItem item) {
+        return item.getName().toLowerCase().replace(" ", "_") + ".jpg";
+    }
+
     private ImageIcon loadIcon(String filename, int w, int h) {
         try {
             String path = System.getProperty("user.dir")+File.separator+"images"+File.separator+filename;
@@ -0,0 +1,126 @@
+package Frame;
+
+import Entity.Branch;
+import Entity.BranchRegistry;
+import Entity.MenuBinaryCache;
+import Entity.MetricsRegistry;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StartupBenchmark class - launch-to-interactive timing for the café window
+ * MainFrame reports phases as it starts; every run prints one line such as
+ *   STARTUP painted=310 menu=42 customers=12 orders=55 interactive=402
+ * painted/interactive are milliseconds since the JVM started, menu/customers/orders
+ * how long each background load took. main() launches the app several times in
+ * fresh JVMs and prints min/median/max per phase. Needs a display, like the app itself.
+ *
+ * Usage: java -cp build/classes Frame.StartupBenchmark [runs] [--no-cache]
+ *   --no-cache deletes the active branch's binary menu cache before each run to time
+ *   the text parse path; the branch is chosen like MainFrame does (-Dcafe.branch)
+ */
+public class StartupBenchmark {
+    public static final String EXIT_PROPERTY = "cafe.startup.exitWhenInteractive";
+    private static final String PREFIX = "STARTUP ";
+    private static final long JVM_START = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final Map<String, Long> PHASES = new ConcurrentHashMap<>();
+
+    // SECTION: Recording (called from MainFrame)
+    static long sinceLaunch() {
+        return System.currentTimeMillis() - JVM_START;
+    }
+
+    static void mark(String phase) {
+        PHASES.putIfAbsent(phase, sinceLaunch());
+    }
+
+    // Duration of a background phase, e.g. how long the menu load itself took
+    static void phase(String phase, long startNanos) {
+        PHASES.put(phase, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    static void markInteractive() {
+        long interactive = sinceLaunch();
+        PHASES.putIfAbsent("interactive", interactive);
+        MetricsRegistry.getDefault().timer("startup.interactive").record(interactive * 1_000_000);
+
+        StringBuilder sb = new StringBuilder(PREFIX);
+        for (String key : new String[]{"painted", "menu", "customers", "orders", "interactive"}) {
+            Long value = PHASES.get(key);
+            if (value != null) {
+                sb.append(key).append('=').append(value).append(' ');
+            }
+        }
+        System.out.println(sb.toString().trim());
+        if (Boolean.getBoolean(EXIT_PROPERTY)) {
+            System.exit(0);
+        }
+    }
+
+    // SECTION: Benchmark driver
+    public static void main(String[] args) throws Exception {
+        int runs = 5;
+        boolean noCache = false;
+        for (String arg : args) {
+            if ("--no-cache".equals(arg)) {
+                noCache = true;
+            } else {
+                runs = Integer.parseInt(arg);
+            }
+        }
+        if (runs <= 0) {
+            throw new IllegalArgumentException("Runs must be positive");
+        }
+
+        File menuCache = null;
+        if (noCache) {
+            BranchRegistry.setActive(BranchRegistry.loadFromFile(BranchRegistry.DEFAULT_BRANCHES_FILE));
+            Branch branch = BranchRegistry.getActive().resolve(System.getProperty("cafe.branch"));
+            menuCache = MenuBinaryCache.cacheFileFor(branch.file("data.txt"));
+        }
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(Arrays.asList(java, "-D" + EXIT_PROPERTY + "=true"));
+        if (System.getProperty("cafe.branch") != null) {
+            command.add("-Dcafe.branch=" + System.getProperty("cafe.branch")); // same outlet in every run
+        }
+        command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), "Start"));
+
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        for (int run = 1; run <= runs; run++) {
+            if (menuCache != null) {
+                menuCache.delete();
+            }
+            Process child = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String line = null;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+                String l;
+                while ((l = reader.readLine()) != null) {
+                    if (l.startsWith(PREFIX)) {
+                        line = l;
+                    }
+                }
+            }
+            child.waitFor();
+            if (line == null) {
+                System.err.println("Run " + run + ": no startup line (exit code " + child.exitValue() + ")");
+                continue;
+            }
+            System.out.println("Run " + run + ": " + line.substring(PREFIX.length()));
+            for (String pair : line.substring(PREFIX.length()).split(" ")) {
+                String[] kv = pair.split("=");
+                results.computeIfAbsent(kv[0], k -> new ArrayList<>()).add(Long.parseLong(kv[1]));
+            }
+        }
+
+        System.out.println("=== STARTUP (ms" + (noCache ? ", text menu" : "") + ") ===");
+        for (Map.Entry<String, List<Long>> e : results.entrySet()) {
+            List<Long> v = e.getValue();
+            Collections.sort(v);
+            System.out.printf("%-12s min=%d median=%d max=%d%n", e.getKey(), v.get(0), v.get(v.size() / 2), v.get(v.size() - 1));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package Server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Json class - just enough JSON for the order API
+ * Writes strings and parses flat request objects (string, number, boolean, null values).
+ */
+public final class Json {
+
+    // Private constructor to prevent instantiation (utility class)
+    private Json() {}
+
+    // SECTION: Writing
+    public static String quote(String s) {
+        if (s == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public static String number(double value) {
+        return String.format("%.2f", value);
+    }
+
+    // SECTION: Parsing
+    public static Map<String, Object> parseObject(String text) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        if (text == null || text.trim().isEmpty()) {
+            return out;
+        }
+        Parser p = new Parser(text);
+        p.skipWhitespace();
+        p.expect('{');
+        p.skipWhitespace();
+        if (p.peek() == '}') {
+            p.pos++;
+            p.expectEnd();
+            return out;
+        }
+        while (true) {
+            p.skipWhitespace();
+            String key = p.readString();
+            p.skipWhitespace();
+            p.expect(':');
+            p.skipWhitespace();
+            out.put(key, p.readValue());
+            p.skipWhitespace();
+            char c = p.next();
+            if (c == '}') {
+                p.expectEnd();
+                return out;
+            }
+            if (c != ',') {
+                throw new IllegalArgumentException("Expected ',' or '}' at position " + (p.pos - 1));
+            }
+        }
+    }
+
+    private static final class Parser {
+        private final String s;
+        private int pos;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        char peek() {
+            if (pos >= s.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON");
+            }
+            return s.charAt(pos);
+        }
+
+        char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        void expect(char c) {
+            if (next() != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at position " + (pos - 1));
+            }
+        }
+
+        // Only whitespace may follow the closing brace
+        void expectEnd() {
+            skipWhitespace();
+            if (pos < s.length()) {
+                throw new IllegalArgumentException("Unexpected trailing input at position " + pos);
+            }
+        }
+
+        void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c == '\\') {
+                    char e = next();
+                    switch (e) {
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            if (pos + 4 > s.length()) {
+                                throw new IllegalArgumentException("Bad unicode escape");
+                            }
+                            sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                            pos += 4;
+                            break;
+                        default: sb.append(e);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+
+        Object readValue() {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (s.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (s.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (s.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            int start = pos;
+            while (pos < s.length() && "+-.eE0123456789".indexOf(s.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw new IllegalArgumentException("Unsupported JSON value at position " + start);
+            }
+            return Double.parseDouble(s.substring(start, pos));
+        }
+    }
+}
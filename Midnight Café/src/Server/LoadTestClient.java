@@ -0,0 +1,165 @@
+package Server;
+
+import Entity.LatencyHistogram;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LoadTestClient class - drives the order API on localhost and reports throughput and tail latency
+ * Each virtual user loops create order -> add items -> confirm -> read status
+ * until the duration runs out. Every request is timed into a per-endpoint histogram.
+ *
+ * Usage: java Server.LoadTestClient [baseUrl] [users] [seconds] [itemName]
+ *   e.g. java Server.LoadTestClient http://localhost:8085 200 30 Latte
+ */
+public class LoadTestClient {
+    private static final String[] ENDPOINTS = {"menu", "create", "addItem", "confirm", "status"};
+
+    // VARIABLE LEGEND: baseUrl, client, histograms, requests, failures
+    private final String baseUrl;
+    private final HttpClient client;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[ENDPOINTS.length];
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public LoadTestClient(String baseUrl) {
+        if (baseUrl == null || baseUrl.isBlank()) {
+            throw new IllegalArgumentException("Base URL cannot be empty");
+        }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1) // the JDK server does not speak h2c; skip the upgrade attempt
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://localhost:8085";
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        String item = args.length > 3 ? args[3] : null;
+
+        LoadTestClient test = new LoadTestClient(url);
+        if (item == null) {
+            item = test.firstMenuItem();
+        }
+        System.out.println(test.run(users, Duration.ofSeconds(seconds), item));
+    }
+
+    // SECTION: Run
+    public String run(int users, Duration duration, String itemName) throws InterruptedException {
+        if (users <= 0) {
+            throw new IllegalArgumentException("Need at least one user");
+        }
+        long deadline = System.nanoTime() + duration.toNanos();
+        long started = System.nanoTime();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < users; u++) {
+                pool.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        runSession(itemName);
+                    }
+                });
+            }
+        } // close() waits for every user to finish
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        return report(users, elapsed);
+    }
+
+    private void runSession(String itemName) {
+        call(0, "GET", "/menu", null);
+        String created = call(1, "POST", "/orders", "{\"name\": \"Load Test\"}");
+        long id = created != null ? extractId(created) : -1;
+        if (id < 0) {
+            return;
+        }
+        String itemBody = "{\"name\": " + Json.quote(itemName) + ", \"quantity\": 1}";
+        call(2, "POST", "/orders/" + id + "/items", itemBody);
+        call(2, "POST", "/orders/" + id + "/items", itemBody);
+        call(3, "POST", "/orders/" + id + "/confirm", null);
+        call(4, "GET", "/orders/" + id, null);
+    }
+
+    // Returns the body on 2xx, null otherwise
+    private String call(int endpoint, String method, String path, String body) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(10));
+        if ("POST".equals(method)) {
+            b.header("Content-Type", "application/json")
+             .POST(HttpRequest.BodyPublishers.ofString(body != null ? body : ""));
+        } else {
+            b.GET();
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(b.build(), HttpResponse.BodyHandlers.ofString());
+            histograms[endpoint].recordSince(start);
+            requests.incrementAndGet();
+            if (response.statusCode() / 100 != 2) {
+                failures.incrementAndGet();
+                return null;
+            }
+            return response.body();
+        } catch (java.io.IOException e) {
+            failures.incrementAndGet();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private String firstMenuItem() {
+        String menu = call(0, "GET", "/menu", null);
+        if (menu == null) {
+            throw new IllegalStateException("Could not read the menu from " + baseUrl);
+        }
+        int at = menu.indexOf("\"name\": ");
+        if (at < 0) {
+            throw new IllegalStateException("Menu has no available items");
+        }
+        int from = menu.indexOf('"', at + 7) + 1;
+        return menu.substring(from, menu.indexOf('"', from));
+    }
+
+    private static long extractId(String json) {
+        int at = json.indexOf("\"id\": ");
+        if (at < 0) {
+            return -1;
+        }
+        int from = at + 6;
+        int to = from;
+        while (to < json.length() && Character.isDigit(json.charAt(to))) {
+            to++;
+        }
+        return to > from ? Long.parseLong(json.substring(from, to)) : -1;
+    }
+
+    // SECTION: Report
+    private String report(int users, double elapsedSeconds) {
+        LatencyHistogram all = new LatencyHistogram();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < ENDPOINTS.length; i++) {
+            all.add(histograms[i]);
+            lines.add(String.format("  %-8s %s", ENDPOINTS[i], histograms[i].summary()));
+        }
+        StringBuilder sb = new StringBuilder("=== LOAD TEST ===\n");
+        sb.append(String.format("users=%d duration=%.1fs requests=%d failures=%d throughput=%.0f req/s%n",
+                users, elapsedSeconds, requests.get(), failures.get(), requests.get() / elapsedSeconds));
+        sb.append(String.format("  %-8s %s%n", "all", all.summary()));
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,319 @@
+package Server;
+
+import Entity.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * OrderApiServer class - HTTP/JSON front door to OrderServiceImpl for tablets and kiosks
+ * Runs on the JDK's built-in HttpServer; every exchange gets its own virtual
+ * thread, so a slow client never holds a platform thread.
+ *
+ *   GET  /menu                     available menu items
+ *   POST /orders                   {"name": "...", "phone": "...", "email": "..."} (all optional)
+ *   GET  /orders/{id}              order status and quote
+ *   POST /orders/{id}/items        {"name": "Latte", "quantity": 2}
+ *   POST /orders/{id}/confirm
+ *
+ * Validation errors map to 400, state errors (out of stock, already confirmed) to 409.
+ * Changes are answered only once the journal has them on disk (awaitDurable).
+ */
+public class OrderApiServer {
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    // VARIABLE LEGEND: orderService, menuManager, server, executor
+    private final OrderServiceImpl orderService;
+    private final MenuManager menuManager;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public OrderApiServer(OrderServiceImpl orderService) {
+        if (orderService == null) {
+            throw new IllegalArgumentException("Order service cannot be null");
+        }
+        this.orderService = orderService;
+        this.menuManager = orderService.getMenuManager();
+    }
+
+    // SECTION: Lifecycle
+    public synchronized void start(int port) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already running on port " + getPort());
+        }
+        // Headers and body go out as separate writes; without TCP_NODELAY each small
+        // response waits ~40ms on Nagle + delayed ACK. Read once when the server class loads.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer created = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        created.setExecutor(executor);
+        // Contexts match by prefix ("/ordersX" would land in /orders); the handlers check the rest
+        created.createContext("/menu", this::handleMenu);
+        created.createContext("/orders", this::handleOrders);
+        created.start();
+        server = created;
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+            server = null;
+            executor = null;
+        }
+    }
+
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    // SECTION: Handlers
+    private void handleMenu(HttpExchange ex) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (!"/menu".equals(ex.getRequestURI().getPath())) {
+                send(ex, 404, error("Not found"));
+                return;
+            }
+            if (!"GET".equals(ex.getRequestMethod())) {
+                send(ex, 405, error("Method not allowed"));
+                return;
+            }
+            StringBuilder sb = new StringBuilder("{\"version\": ");
+            MenuSnapshot snapshot = menuManager.getSnapshot();
+            sb.append(snapshot.getVersion()).append(", \"items\": [");
+            List<MenuItem> items = snapshot.getAvailableItems();
+            for (int i = 0; i < items.size(); i++) {
+                MenuItem item = items.get(i);
+                if (i > 0) sb.append(", ");
+                sb.append("{\"name\": ").append(Json.quote(item.getName()))
+                  .append(", \"category\": ").append(Json.quote(item.getCategory()))
+                  .append(", \"price\": ").append(Json.number(item.getPrice()))
+                  .append(", \"description\": ").append(Json.quote(item.getDescription()))
+                  .append(", \"stock\": ").append(item.getStock())
+                  .append('}');
+            }
+            sb.append("]}");
+            send(ex, 200, sb.toString());
+        } finally {
+            METRICS.recordTime("api.menu", start);
+        }
+    }
+
+    private void handleOrders(HttpExchange ex) throws IOException {
+        long start = System.nanoTime();
+        try {
+            String path = ex.getRequestURI().getPath();
+            if (!"/orders".equals(path) && !path.startsWith("/orders/")) {
+                send(ex, 404, error("Not found"));
+                return;
+            }
+            String[] parts = path.split("/");
+            // parts: ["", "orders", id?, action?]
+            String method = ex.getRequestMethod();
+            if (parts.length == 2) {
+                if ("POST".equals(method)) {
+                    createOrder(ex);
+                } else {
+                    send(ex, 405, error("Method not allowed"));
+                }
+                return;
+            }
+            if (parts.length > 4) {
+                send(ex, 404, error("Not found"));
+                return;
+            }
+            Order order = findOrder(parts[2]);
+            if (order == null) {
+                send(ex, 404, error("No such order: " + parts[2]));
+                return;
+            }
+            String action = parts.length == 4 ? parts[3] : "";
+            switch (action) {
+                case "":
+                    if ("GET".equals(method)) send(ex, 200, orderJson(order));
+                    else send(ex, 405, error("Method not allowed"));
+                    break;
+                case "items":
+                    if ("POST".equals(method)) addItem(ex, order);
+                    else send(ex, 405, error("Method not allowed"));
+                    break;
+                case "confirm":
+                    if ("POST".equals(method)) confirm(ex, order);
+                    else send(ex, 405, error("Method not allowed"));
+                    break;
+                default:
+                    send(ex, 404, error("Not found"));
+            }
+        } catch (IllegalArgumentException e) {
+            send(ex, 400, error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            send(ex, 409, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + ex.getRequestURI() + ": " + e);
+            send(ex, 500, error("Internal error"));
+        } finally {
+            METRICS.recordTime("api.orders", start);
+        }
+    }
+
+    private void createOrder(HttpExchange ex) throws IOException {
+        Map<String, Object> body = Json.parseObject(readBody(ex));
+        Customer customer = new Customer();
+        String name = stringField(body, "name");
+        String phone = stringField(body, "phone");
+        String email = stringField(body, "email");
+        if (name != null) customer.setName(name);
+        if (phone != null) customer.setPhoneNumber(phone);
+        if (email != null) customer.setEmail(email);
+
+        Order order = orderService.createOrder(customer);
+        METRICS.increment("api.ordersCreated");
+        String json = orderJson(order);
+        orderService.awaitDurable();
+        send(ex, 201, json);
+    }
+
+    private void addItem(HttpExchange ex, Order order) throws IOException {
+        Map<String, Object> body = Json.parseObject(readBody(ex));
+        String name = stringField(body, "name");
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Item name is required");
+        }
+        Object q = body.get("quantity");
+        int quantity = q == null ? 1 : toInt(q);
+        MenuItem item = menuManager.findMenuItem(name);
+        if (item == null) {
+            send(ex, 404, error("No such menu item: " + name));
+            return;
+        }
+        // Order itself is not thread-safe; two tablets on the same order take turns on its
+        // lock. The response is written after the lock is released.
+        String json;
+        ReentrantLock lock = order.getLock();
+        lock.lock();
+        try {
+            if (!"pending".equals(order.getOrderStatus())) {
+                throw new IllegalStateException("Order is " + order.getOrderStatus() + ", items can no longer be added");
+            }
+            orderService.addItemToOrder(order, item, quantity);
+            json = orderJson(order);
+        } finally {
+            lock.unlock();
+        }
+        orderService.awaitDurable();
+        send(ex, 200, json);
+    }
+
+    private void confirm(HttpExchange ex, Order order) throws IOException {
+        String json;
+        ReentrantLock lock = order.getLock();
+        lock.lock();
+        try {
+            if (!"pending".equals(order.getOrderStatus())) {
+                throw new IllegalStateException("Order is already " + order.getOrderStatus());
+            }
+            orderService.confirmOrder(order);
+            json = orderJson(order);
+        } finally {
+            lock.unlock();
+        }
+        orderService.awaitDurable();
+        send(ex, 200, json);
+    }
+
+    // SECTION: Helpers
+    private Order findOrder(String id) {
+        try {
+            return orderService.findOrder(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String orderJson(Order order) {
+        ReentrantLock lock = order.getLock();
+        lock.lock();
+        try {
+            PriceQuote quote = order.getQuote();
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"id\": ").append(order.getOrderId())
+              .append(", \"status\": ").append(Json.quote(order.getOrderStatus()))
+              .append(", \"customer\": ").append(Json.quote(order.getCustomer() != null ? order.getCustomer().getName() : ""))
+              .append(", \"items\": [");
+            List<OrderItem> items = order.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                OrderItem oi = items.get(i);
+                if (i > 0) sb.append(", ");
+                sb.append("{\"name\": ").append(Json.quote(oi.getItemName()))
+                  .append(", \"quantity\": ").append(oi.getQuantity())
+                  .append(", \"price\": ").append(Json.number(oi.getTotalPrice()))
+                  .append('}');
+            }
+            sb.append("], \"subtotal\": ").append(Json.number(quote.getSubtotal()))
+              .append(", \"discount\": ").append(Json.number(quote.getDiscountTotal()))
+              .append(", \"total\": ").append(Json.number(quote.getTotal()))
+              .append('}');
+            return sb.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\": " + Json.quote(message) + "}";
+    }
+
+    private static String stringField(Map<String, Object> body, String key) {
+        Object value = body.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + key + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static int toInt(Object value) {
+        if (!(value instanceof Double)) {
+            throw new IllegalArgumentException("Quantity must be a number");
+        }
+        double d = (Double) value;
+        if (d != Math.rint(d) || d < 1 || d > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Quantity must be a positive whole number");
+        }
+        return (int) d;
+    }
+
+    private static String readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}